@@ -1,6 +1,8 @@
 package main.Accounts;
 
 import main.CashbackService.AccountCashback;
+import main.Events.Events;
+import main.Events.PaymentEvent;
 
 import java.util.Observable;
 
@@ -21,13 +23,13 @@ public abstract class Account extends Observable {
             this.balance -= amount;
             setChanged();
             notifyObservers(new AccountCashback(this, amount));
-            System.out.println("Paid $" + amount + " using " + getClass().getSimpleName() + " Remaining: " + this.balance);
+            Events.publish(new PaymentEvent(PaymentEvent.Outcome.PAID, getClass(), amount, this.balance));
             return true;
         } else if (this.successor != null){
-            System.out.println("Can not pay $" + amount + " using " + getClass().getSimpleName() + ". Proceeding...");
+            Events.publish(new PaymentEvent(PaymentEvent.Outcome.PASSED_ON, getClass(), amount, this.balance));
             return successor.pay(amount);
         } else {
-            System.out.println("Can not pay $" + amount + " with " + getClass().getSimpleName());
+            Events.publish(new PaymentEvent(PaymentEvent.Outcome.DECLINED, getClass(), amount, this.balance));
             return false;
         }
     }
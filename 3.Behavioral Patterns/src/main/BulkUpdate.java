@@ -0,0 +1,56 @@
+package main;
+
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.ICar;
+import main.Enums.Manufacturer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Chain of conditional updates applied to the whole garage in one pass.
+// The steps run in order on each car, so every step sees what the steps before it changed.
+// Large garages are split over the common fork-join pool; updates must only touch the car they are given.
+public class BulkUpdate {
+    private final Function<List<Step>, BulkUpdateSummary> applier;
+    private final List<Step> steps = new ArrayList<>();
+
+    // applier runs the steps on the garage the update was started from
+    BulkUpdate(Function<List<Step>, BulkUpdateSummary> applier){
+        this.applier = applier;
+    }
+
+    public BulkUpdate step(Predicate<? super ICar> condition, Consumer<? super ICar> update){
+        this.steps.add(new Step(condition, update));
+        return this;
+    }
+
+    public BulkUpdate discount(float percentage){
+        return step(car -> true, car -> car.setPrice((int)(car.getPrice() * (100 - percentage) / 100)));
+    }
+
+    public BulkUpdate priceFloor(int minPrice){
+        return step(car -> car.getPrice() < minPrice, car -> car.setPrice(minPrice));
+    }
+
+    public BulkUpdate recolor(Manufacturer manufacturer, ICarColorScheme colorScheme){
+        return step(car -> car.getManufacturer() == manufacturer, car -> car.setColorScheme(colorScheme));
+    }
+
+    public BulkUpdateSummary apply(){
+        return this.applier.apply(Collections.unmodifiableList(new ArrayList<>(this.steps)));
+    }
+
+    static final class Step {
+        final Predicate<? super ICar> condition;
+        final Consumer<? super ICar> update;
+
+        Step(Predicate<? super ICar> condition, Consumer<? super ICar> update){
+            this.condition = condition;
+            this.update = update;
+        }
+    }
+}
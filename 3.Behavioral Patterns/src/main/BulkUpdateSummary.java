@@ -0,0 +1,53 @@
+package main;
+
+import java.util.Arrays;
+
+public class BulkUpdateSummary {
+    private final int carsCount;
+    private final int changedCount;
+    private final long priceChange;
+    private final int[] matchedCounts;
+
+    BulkUpdateSummary(int carsCount, int changedCount, long priceChange, int[] matchedCounts){
+        this.carsCount = carsCount;
+        this.changedCount = changedCount;
+        this.priceChange = priceChange;
+        this.matchedCounts = matchedCounts;
+    }
+
+    BulkUpdateSummary merge(BulkUpdateSummary other){
+        int[] matched = this.matchedCounts.clone();
+        for (int step = 0; step < matched.length; step++){
+            matched[step] += other.matchedCounts[step];
+        }
+        return new BulkUpdateSummary(this.carsCount + other.carsCount, this.changedCount + other.changedCount,
+                this.priceChange + other.priceChange, matched);
+    }
+
+    public int getCarsCount(){
+        return this.carsCount;
+    }
+
+    public int getChangedCount(){
+        return this.changedCount;
+    }
+
+    // Change of the garage's net price, negative after a discount
+    public long getPriceChange(){
+        return this.priceChange;
+    }
+
+    public int getStepsCount(){
+        return this.matchedCounts.length;
+    }
+
+    public int getMatchedCount(int step){
+        return this.matchedCounts[step];
+    }
+
+    @Override
+    public String toString(){
+        return "Changed " + this.changedCount + " of " + this.carsCount + " cars, net price changed by €" + this.priceChange
+                + ", cars matched per step: " + Arrays.toString(this.matchedCounts);
+    }
+}
@@ -0,0 +1,89 @@
+package main;
+
+import main.Cars.ICar;
+import main.Snapshots.CarRecord;
+import main.Snapshots.PersistentVector;
+import main.Storage.CarStorage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+// Runs the steps over slots [from, to) and compares every car with its record to find what changed.
+// Only reads the records, the garage brings them up to date once all slots are done.
+class BulkUpdateTask extends RecursiveTask<BulkUpdateTask.Result> {
+    private static final long serialVersionUID = 1L;
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    private final CarStorage storage;
+    private final PersistentVector<CarRecord> records;
+    private final List<BulkUpdate.Step> steps;
+    private final int from;
+    private final int to;
+
+    BulkUpdateTask(CarStorage storage, PersistentVector<CarRecord> records, List<BulkUpdate.Step> steps, int from, int to){
+        this.storage = storage;
+        this.records = records;
+        this.steps = steps;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected Result compute() {
+        if (this.to - this.from <= SEQUENTIAL_THRESHOLD) {
+            return updateSlots();
+        }
+
+        int middle = (this.from + this.to) >>> 1;
+        BulkUpdateTask right = new BulkUpdateTask(this.storage, this.records, this.steps, middle, this.to);
+        right.fork();
+        Result left = new BulkUpdateTask(this.storage, this.records, this.steps, this.from, middle).compute();
+        return left.merge(right.join());
+    }
+
+    private Result updateSlots(){
+        int[] matched = new int[this.steps.size()];
+        int[] changedSlots = new int[16];
+        int changedCount = 0;
+        long priceChange = 0;
+
+        for (int slot = this.from; slot < this.to; slot++){
+            ICar car = this.storage.get(slot);
+            for (int step = 0; step < matched.length; step++){
+                BulkUpdate.Step current = this.steps.get(step);
+                if (current.condition.test(car)) {
+                    matched[step]++;
+                    current.update.accept(car);
+                }
+            }
+
+            CarRecord record = this.records.get(slot);
+            if (!record.matches(car)) {
+                if (changedCount == changedSlots.length) {
+                    changedSlots = Arrays.copyOf(changedSlots, changedCount * 2);
+                }
+                changedSlots[changedCount++] = slot;
+                priceChange += car.getPrice() - record.getPrice();
+            }
+        }
+        return new Result(changedSlots, new BulkUpdateSummary(this.to - this.from, changedCount, priceChange, matched));
+    }
+
+    static final class Result {
+        final int[] changedSlots;
+        final BulkUpdateSummary summary;
+
+        Result(int[] changedSlots, BulkUpdateSummary summary){
+            this.changedSlots = changedSlots;
+            this.summary = summary;
+        }
+
+        Result merge(Result right){
+            int leftCount = this.summary.getChangedCount();
+            int[] slots = Arrays.copyOf(this.changedSlots, leftCount + right.summary.getChangedCount());
+            System.arraycopy(right.changedSlots, 0, slots, leftCount, right.summary.getChangedCount());
+            return new Result(slots, this.summary.merge(right.summary));
+        }
+    }
+}
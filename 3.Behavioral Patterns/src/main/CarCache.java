@@ -0,0 +1,204 @@
+package main;
+
+import main.Snapshots.CarSegmentStore;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+// CLOCK cache of the cars of a segment store, keyed by slot.
+// A hit only sets the reference bit of its entry. On a miss the hand sweeps the entries, clearing the bits it passes,
+// and evicts the first car that was not used since the hand last came by.
+// Slots are found through an open addressing table, so a hit costs no allocation.
+// Every car handed out stays weakly registered under its slot after eviction, so a slot never has two cars:
+// a miss hands the same car out again while anyone still holds it, and moves and removals reach it as well.
+class CarCache {
+    private static final int FREE = -1;
+
+    private final CarSegmentStore store;
+    private final StoredCar[] cars;
+    private final boolean[] referenced;
+    private final int[] keys;
+    private final int[] entries;
+    private final int mask;
+    private final HashMap<Integer, HandleReference> handles = new HashMap<>();
+    private final ReferenceQueue<StoredCar> collected = new ReferenceQueue<>();
+    private int used;
+    private int hand;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    CarCache(CarSegmentStore store, int capacity){
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A cache needs room for at least one car, got " + capacity);
+        }
+        this.store = store;
+        this.cars = new StoredCar[capacity];
+        this.referenced = new boolean[capacity];
+        int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.keys = new int[tableSize];
+        this.entries = new int[tableSize];
+        this.mask = tableSize - 1;
+        Arrays.fill(this.keys, FREE);
+    }
+
+    StoredCar get(int slot){
+        int entry = find(slot);
+        if (entry >= 0) {
+            this.hits++;
+            this.referenced[entry] = true;
+            return this.cars[entry];
+        }
+
+        this.misses++;
+        purge();
+        HandleReference handle = this.handles.get(slot);
+        StoredCar car = handle != null? handle.get(): null;
+        if (car != null) {
+            car.reload();
+        } else {
+            car = new StoredCar(this.store, slot);
+            this.handles.put(slot, new HandleReference(car, slot, this.collected));
+        }
+        entry = freeEntry();
+        this.cars[entry] = car;
+        this.referenced[entry] = false;
+        put(slot, entry);
+        return car;
+    }
+
+    // The car handed out for the slot, cached or not, or null when nobody holds one anymore
+    StoredCar remove(int slot){
+        purge();
+        int entry = find(slot);
+        if (entry >= 0) {
+            delete(slot);
+            this.cars[entry] = null;
+        }
+        HandleReference handle = this.handles.remove(slot);
+        return handle != null? handle.get(): null;
+    }
+
+    void move(int from, int to){
+        purge();
+        int entry = find(from);
+        if (entry >= 0) {
+            delete(from);
+            put(to, entry);
+        }
+        HandleReference handle = this.handles.remove(from);
+        StoredCar car = handle != null? handle.get(): null;
+        if (car != null) {
+            car.moveTo(to);
+            handle.slot = to;
+            this.handles.put(to, handle);
+        }
+    }
+
+    void forEach(Consumer<StoredCar> action){
+        for (int entry = 0; entry < this.used; entry++){
+            if (this.cars[entry] != null) {
+                action.accept(this.cars[entry]);
+            }
+        }
+    }
+
+    long getHits(){
+        return this.hits;
+    }
+
+    long getMisses(){
+        return this.misses;
+    }
+
+    long getEvictions(){
+        return this.evictions;
+    }
+
+    private int freeEntry(){
+        if (this.used < this.cars.length) {
+            return this.used++;
+        }
+        while (this.cars[this.hand] != null && this.referenced[this.hand]){
+            this.referenced[this.hand] = false;
+            this.hand = (this.hand + 1) % this.cars.length;
+        }
+        int entry = this.hand;
+        this.hand = (this.hand + 1) % this.cars.length;
+        StoredCar victim = this.cars[entry];
+        if (victim != null) {
+            delete(victim.getSlot());
+            victim.evict();
+            this.evictions++;
+        }
+        return entry;
+    }
+
+    private void purge(){
+        HandleReference handle;
+        while ((handle = (HandleReference) this.collected.poll()) != null){
+            this.handles.remove(handle.slot, handle);
+        }
+    }
+
+    private int home(int slot){
+        int hash = slot * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+
+    private int find(int slot){
+        for (int i = home(slot); this.keys[i] != FREE; i = (i + 1) & this.mask){
+            if (this.keys[i] == slot) {
+                return this.entries[i];
+            }
+        }
+        return -1;
+    }
+
+    private void put(int slot, int entry){
+        int i = home(slot);
+        while (this.keys[i] != FREE){
+            i = (i + 1) & this.mask;
+        }
+        this.keys[i] = slot;
+        this.entries[i] = entry;
+    }
+
+    // Linear probing delete: later keys of the same run are shifted back so lookups never stop early
+    private void delete(int slot){
+        int i = home(slot);
+        while (this.keys[i] != slot){
+            if (this.keys[i] == FREE) {
+                return;
+            }
+            i = (i + 1) & this.mask;
+        }
+        int j = i;
+        while (true){
+            j = (j + 1) & this.mask;
+            if (this.keys[j] == FREE) {
+                break;
+            }
+            int home = home(this.keys[j]);
+            boolean movable = i <= j? (home <= i || home > j): (home <= i && home > j);
+            if (movable) {
+                this.keys[i] = this.keys[j];
+                this.entries[i] = this.entries[j];
+                i = j;
+            }
+        }
+        this.keys[i] = FREE;
+    }
+
+    private static final class HandleReference extends WeakReference<StoredCar> {
+        int slot;
+
+        HandleReference(StoredCar car, int slot, ReferenceQueue<StoredCar> queue){
+            super(car, queue);
+            this.slot = slot;
+        }
+    }
+}
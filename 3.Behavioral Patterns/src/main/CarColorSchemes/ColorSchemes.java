@@ -0,0 +1,50 @@
+package main.CarColorSchemes;
+
+import main.Enums.Color;
+import main.Enums.InteriorColor;
+
+// Flyweight factory: there is exactly one scheme per body and interior color, built up front,
+// so any number of cars share the same 16 objects and two schemes are equal only if they are the same object.
+// Every scheme also has a one byte code (body color ordinal * 2 + interior color ordinal) for compact storage.
+public final class ColorSchemes {
+    private static final Color[] COLORS = Color.values();
+    private static final InteriorColor[] INTERIOR_COLORS = InteriorColor.values();
+    private static final ICarColorScheme[] SCHEMES = new ICarColorScheme[COLORS.length * INTERIOR_COLORS.length];
+
+    static {
+        for (Color color: COLORS){
+            SCHEMES[codeOf(color, InteriorColor.LIGHT)] = new LightCarColorScheme(color);
+            SCHEMES[codeOf(color, InteriorColor.DARK)] = new DarkCarColorScheme(color);
+        }
+    }
+
+    // What a new car is painted in
+    public static final ICarColorScheme DEFAULT = dark(Color.WHITE);
+
+    private ColorSchemes(){ }
+
+    public static ICarColorScheme of(Color bodyColor, InteriorColor interiorColor){
+        return SCHEMES[codeOf(bodyColor, interiorColor)];
+    }
+
+    public static ICarColorScheme light(Color bodyColor){
+        return of(bodyColor, InteriorColor.LIGHT);
+    }
+
+    public static ICarColorScheme dark(Color bodyColor){
+        return of(bodyColor, InteriorColor.DARK);
+    }
+
+    public static ICarColorScheme fromCode(byte code){
+        return SCHEMES[code];
+    }
+
+    // The shared scheme with the same colors, for schemes implemented elsewhere
+    public static ICarColorScheme canonical(ICarColorScheme colorScheme){
+        return SCHEMES[colorScheme.getCode()];
+    }
+
+    public static byte codeOf(Color bodyColor, InteriorColor interiorColor){
+        return (byte) (bodyColor.ordinal() * INTERIOR_COLORS.length + interiorColor.ordinal());
+    }
+}
@@ -3,14 +3,16 @@ package main.CarColorSchemes;
 import main.Enums.Color;
 import main.Enums.InteriorColor;
 
-public class DarkCarColorScheme implements ICarColorScheme {
-    private Color bodyColor;
-    private InteriorColor interiorColor;
+// Immutable, the only instances are the shared ones handed out by ColorSchemes
+public final class DarkCarColorScheme implements ICarColorScheme {
+    private final Color bodyColor;
+    private final InteriorColor interiorColor;
+    private final byte code;
 
-
-    public DarkCarColorScheme(Color bodyColor){
+    DarkCarColorScheme(Color bodyColor){
         this.bodyColor = bodyColor;
         this.interiorColor = InteriorColor.DARK;
+        this.code = ColorSchemes.codeOf(bodyColor, this.interiorColor);
     }
 
     @Override
@@ -23,6 +25,11 @@ public class DarkCarColorScheme implements ICarColorScheme {
         return this.interiorColor;
     }
 
+    @Override
+    public byte getCode() {
+        return this.code;
+    }
+
     @Override
     public String toString(){
         return "Body color: " + this.bodyColor + " | " + this.interiorColor + " interior!";
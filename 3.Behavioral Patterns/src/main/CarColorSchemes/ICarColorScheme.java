@@ -6,4 +6,9 @@ import main.Enums.InteriorColor;
 public interface ICarColorScheme {
     Color getBodyColor();
     InteriorColor getInteriorColor();
+
+    // See ColorSchemes
+    default byte getCode(){
+        return ColorSchemes.codeOf(getBodyColor(), getInteriorColor());
+    }
 }
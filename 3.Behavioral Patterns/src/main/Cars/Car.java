@@ -1,28 +1,40 @@
 package main.Cars;
 
 import main.Accounts.Account;
-import main.CarColorSchemes.DarkCarColorScheme;
+import main.CarColorSchemes.ColorSchemes;
 import main.CarColorSchemes.ICarColorScheme;
 import main.Enums.CarType;
-import main.Enums.Color;
 import main.Enums.Manufacturer;
+import main.Events.Events;
+import main.Events.PurchaseEvent;
 
 public abstract class Car implements ICar {
 
     private Manufacturer manufacturer;
-    private String model;
+    private int modelId;
     private int year;
     private CarType type;
     private ICarColorScheme colorScheme;
     private int price;
-
+    private CarObserverList observers;
+    private boolean pooled;
 
     public Car(Manufacturer manufacturer, String model, int year, CarType type){
         this.manufacturer = manufacturer;
-        this.model = model;
+        this.modelId = ModelNames.idOf(model);
         this.year = year;
         this.type = type;
-        this.colorScheme = new DarkCarColorScheme(Color.WHITE);
+        this.colorScheme = ColorSchemes.DEFAULT;
+    }
+
+    // Copies everything but the observers, the copy is not part of any garage yet
+    protected Car(Car other){
+        this.manufacturer = other.manufacturer;
+        this.modelId = other.modelId;
+        this.year = other.year;
+        this.type = other.type;
+        this.colorScheme = other.colorScheme;
+        this.price = other.price;
     }
 
     public Manufacturer getManufacturer(){
@@ -30,7 +42,12 @@ public abstract class Car implements ICar {
     }
 
     public String getModel(){
-        return this.model;
+        return ModelNames.nameOf(this.modelId);
+    }
+
+    @Override
+    public int getModelId(){
+        return this.modelId;
     }
 
     public int getYear(){
@@ -43,28 +60,81 @@ public abstract class Car implements ICar {
 
     public void setManufacturer(Manufacturer manufacturer){
         this.manufacturer = manufacturer;
+        notifyCarChanged();
     }
 
     public void setModel(String model){
-        this.model = model;
+        this.modelId = ModelNames.idOf(model);
+        notifyCarChanged();
     }
 
     public void setYear(int year){
         this.year = year;
+        notifyCarChanged();
     }
 
     public void setType(CarType type){
         this.type = type;
+        notifyCarChanged();
     }
 
     public void setColorScheme(ICarColorScheme newColorScheme){
         this.colorScheme = newColorScheme;
+        notifyCarChanged();
     }
 
     public ICarColorScheme getColorScheme(){
         return this.colorScheme;
     }
 
+    public void addObserver(CarObserver observer){
+        if (this.observers == null) {
+            this.observers = new CarObserverList();
+        }
+        this.observers.add(observer);
+    }
+
+    public void removeObserver(CarObserver observer){
+        if (this.observers != null) {
+            this.observers.remove(observer);
+        }
+    }
+
+    // Whether anything, such as a garage holding the car, still listens to its changes
+    public boolean hasObservers(){
+        return this.observers != null && !this.observers.isEmpty();
+    }
+
+    private void notifyCarChanged(){
+        if (this.observers != null) {
+            this.observers.notifyCarChanged(this);
+        }
+    }
+
+    // Brings a recycled car back to the state of a newly built one of the same type.
+    // A pooled car has no observers left, CarPool refuses cars that still have some.
+    public void reset(Manufacturer manufacturer, String model, int year){
+        this.manufacturer = manufacturer;
+        this.modelId = ModelNames.idOf(model);
+        this.year = year;
+        this.colorScheme = ColorSchemes.DEFAULT;
+        this.price = 0;
+        this.observers = null;
+    }
+
+    // Set while the car waits in a CarPool; false when it already was, so it is not pooled twice
+    public synchronized boolean markPooled(){
+        if (this.pooled) {
+            return false;
+        }
+        this.pooled = true;
+        return true;
+    }
+
+    public synchronized void clearPooled(){
+        this.pooled = false;
+    }
+
     protected abstract void construct();
 
     public abstract Car clone();
@@ -74,25 +144,29 @@ public abstract class Car implements ICar {
     }
 
     public void setPrice(int newPrice){
+        int oldPrice = this.price;
         this.price = newPrice;
+        if (this.observers != null) {
+            this.observers.notifyPriceChanged(this, oldPrice);
+        }
     }
 
     public void purchase(Account account){
         if (this.price < 1){
-            System.out.println(this.manufacturer + " " + this.model + " can not be sold.");
+            Events.publish(new PurchaseEvent(PurchaseEvent.Outcome.NOT_FOR_SALE, this.manufacturer, getModel(), this.price));
             return;
         }
 
         if (account.pay(this.price)){
-            System.out.println(this.manufacturer + " " + this.model + " was purchased by $" + this.price);
+            Events.publish(new PurchaseEvent(PurchaseEvent.Outcome.PURCHASED, this.manufacturer, getModel(), this.price));
         } else {
-            System.out.println("Purchase failed for: " + this.manufacturer + " " + this.model);
+            Events.publish(new PurchaseEvent(PurchaseEvent.Outcome.FAILED, this.manufacturer, getModel(), this.price));
         }
     }
 
     @Override
     public String toString(){
-        return this.manufacturer + " " + this.model + "(" + this.type + ") manufactured in " + this.year;
+        return this.manufacturer + " " + getModel() + "(" + this.type + ") manufactured in " + this.year;
     }
 }
 
@@ -0,0 +1,6 @@
+package main.Cars;
+
+public interface CarObserver {
+    void onCarChanged(ICar car);
+    void onPriceChanged(ICar car, int oldPrice);
+}
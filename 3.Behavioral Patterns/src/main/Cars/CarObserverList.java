@@ -0,0 +1,45 @@
+package main.Cars;
+
+import java.util.Arrays;
+
+// Copy-on-write array of observers: registering is rare, notifying happens on every setter call
+public final class CarObserverList {
+    private static final CarObserver[] EMPTY = new CarObserver[0];
+    private CarObserver[] observers = EMPTY;
+
+    public void add(CarObserver observer){
+        CarObserver[] current = this.observers;
+        CarObserver[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = observer;
+        this.observers = updated;
+    }
+
+    public void remove(CarObserver observer){
+        CarObserver[] current = this.observers;
+        for (int i = 0; i < current.length; i++){
+            if (current[i] == observer) {
+                CarObserver[] updated = new CarObserver[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                this.observers = updated;
+                return;
+            }
+        }
+    }
+
+    public boolean isEmpty(){
+        return this.observers.length == 0;
+    }
+
+    public void notifyCarChanged(ICar car){
+        for (CarObserver observer: this.observers){
+            observer.onCarChanged(car);
+        }
+    }
+
+    public void notifyPriceChanged(ICar car, int oldPrice){
+        for (CarObserver observer: this.observers){
+            observer.onPriceChanged(car, oldPrice);
+        }
+    }
+}
@@ -17,4 +17,11 @@ public interface ICar {
     ICarColorScheme getColorScheme();
     int getPrice();
     void setPrice(int newPrice);
+    void addObserver(CarObserver observer);
+    void removeObserver(CarObserver observer);
+
+    // Id of the model in ModelNames, the same for every car of that model
+    default int getModelId(){
+        return ModelNames.idOf(getModel());
+    }
 }
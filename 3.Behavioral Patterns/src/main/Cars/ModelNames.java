@@ -0,0 +1,55 @@
+package main.Cars;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Global symbol table of model names: every distinct name gets one canonical String and a small int id,
+// handed out in the order names are first seen. Cars keep the id, so a car costs 4 bytes for its model
+// and comparing or grouping by model compares ints.
+// Lookups of known names take no lock; ids are never reused, the table only grows.
+public final class ModelNames {
+    public static final int NONE = -1;
+
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[256];
+    private static int size;
+
+    private ModelNames(){ }
+
+    public static int idOf(String model){
+        if (model == null) {
+            return NONE;
+        }
+        Integer id = ids.get(model);
+        return id != null? id: register(model);
+    }
+
+    public static String nameOf(int id){
+        return id == NONE? null: names[id];
+    }
+
+    // The shared instance equal to the name
+    public static String canonical(String model){
+        return nameOf(idOf(model));
+    }
+
+    public static int size(){
+        return ids.size();
+    }
+
+    // The name is stored before its id is published, so whoever gets the id can read the name
+    private static synchronized int register(String model){
+        Integer id = ids.get(model);
+        if (id != null) {
+            return id;
+        }
+        String[] current = names;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+            names = current;
+        }
+        current[size] = model;
+        ids.put(model, size);
+        return size++;
+    }
+}
@@ -2,6 +2,8 @@ package main.Cars;
 
 import main.Enums.CarType;
 import main.Enums.Manufacturer;
+import main.Events.ConstructionEvent;
+import main.Events.Events;
 
 import java.util.Random;
 
@@ -12,12 +14,12 @@ public class SavCar extends Car {
     }
 
     public SavCar(SavCar other){
-        super(other.getManufacturer(), other.getModel(), other.getYear(), other.getType());
+        super(other);
     }
 
     @Override
     protected void construct() {
-        System.out.println("Building Sav car...");
+        Events.publish(ConstructionEvent.of(CarType.SAV));
     }
 
     @Override
@@ -2,6 +2,8 @@ package main.Cars;
 
 import main.Enums.CarType;
 import main.Enums.Manufacturer;
+import main.Events.ConstructionEvent;
+import main.Events.Events;
 
 import java.util.Random;
 
@@ -12,12 +14,12 @@ public class SedanCar extends Car {
     }
 
     public SedanCar(SedanCar other){
-        super(other.getManufacturer(), other.getModel(), other.getYear(), other.getType());
+        super(other);
     }
 
     @Override
     protected void construct() {
-        System.out.println("Building Sedan car...");
+        Events.publish(ConstructionEvent.of(CarType.SEDAN));
     }
 
     @Override
@@ -0,0 +1,386 @@
+package main;
+
+import main.Cars.CarObserver;
+import main.Cars.ICar;
+import main.Events.DiscountEvent;
+import main.Events.Events;
+import main.Snapshots.CarRecord;
+import main.Snapshots.PersistentVector;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Garage for many writing threads. Cars live in lock-striped segments; a writer appends to the
+// segment of its thread (or the first free one) so writers on different segments never wait on each other.
+// Every segment publishes an immutable (array, size) view after each change:
+// iterators, streams and reports work on the views taken when they were created, never block writers
+// and see every car whose addCars() returned before that point exactly once.
+// Cars added or removed afterwards may or may not be seen, the order is segment by segment.
+// getNetGaragePrice() reads a LongAdder and never blocks.
+// Indexed queries, aggregates and history are only available on the single threaded Garage,
+// a ConcurrentGarage is used through IGarage.
+public class ConcurrentGarage implements IGarage {
+    private final Segment[] segments;
+    private final LongAdder totalPrice = new LongAdder();
+    private final CarObserver priceObserver = new PriceObserver();
+
+    public ConcurrentGarage(){
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public ConcurrentGarage(int segmentsCount){
+        if (segmentsCount < 1) {
+            throw new IllegalArgumentException("A garage needs at least one segment, got " + segmentsCount);
+        }
+        this.segments = new Segment[segmentsCount];
+        for (int i = 0; i < segmentsCount; i++){
+            this.segments[i] = new Segment();
+        }
+    }
+
+    @Override
+    public void addCars(ICar... cars){
+        Segment segment = lockSegment();
+        try {
+            for (ICar car: cars){
+                car.addObserver(this.priceObserver);
+                this.totalPrice.add(car.getPrice());
+            }
+            segment.append(cars);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean removeCar(ICar car){
+        for (Segment segment: this.segments){
+            segment.lock.lock();
+            try {
+                if (segment.remove(car)) {
+                    car.removeObserver(this.priceObserver);
+                    this.totalPrice.add(-car.getPrice());
+                    return true;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public long getNetGaragePrice(){
+        return this.totalPrice.sum();
+    }
+
+    @Override
+    public int getCarsCount(){
+        int count = 0;
+        for (Segment segment: this.segments){
+            count += segment.view.size;
+        }
+        return count;
+    }
+
+    // Position in iteration order, only stable while no other thread is writing
+    @Override
+    public ICar getCar(int slot){
+        int offset = slot;
+        for (Segment segment: this.segments){
+            View view = segment.view;
+            if (offset < view.size) {
+                return view.cars[offset];
+            }
+            offset -= view.size;
+        }
+        throw new IndexOutOfBoundsException("Slot " + slot + " is out of bounds");
+    }
+
+    // Discounts one segment at a time; adds to a segment that has not been reached yet are discounted as well
+    @Override
+    public void applyDiscount(float percentage){
+        for (Segment segment: this.segments){
+            segment.lock.lock();
+            try {
+                View view = segment.view;
+                for (int i = 0; i < view.size; i++){
+                    ICar car = view.cars[i];
+                    car.setPrice((int)(car.getPrice() * (100 - percentage) / 100));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        Events.publish(new DiscountEvent(percentage));
+    }
+
+    @Override
+    public BulkUpdate bulk(){
+        return new BulkUpdate(this::applyBulk);
+    }
+
+    // Segments are updated in parallel, each one under its own lock
+    private BulkUpdateSummary applyBulk(List<BulkUpdate.Step> steps){
+        return Arrays.stream(this.segments).parallel()
+                .map(segment -> applyBulk(segment, steps))
+                .reduce(new BulkUpdateSummary(0, 0, 0, new int[steps.size()]), BulkUpdateSummary::merge);
+    }
+
+    private BulkUpdateSummary applyBulk(Segment segment, List<BulkUpdate.Step> steps){
+        int[] matched = new int[steps.size()];
+        int changedCount = 0;
+        long priceChange = 0;
+        segment.lock.lock();
+        try {
+            View view = segment.view;
+            for (int i = 0; i < view.size; i++){
+                ICar car = view.cars[i];
+                CarRecord before = CarRecord.of(car);
+                for (int step = 0; step < matched.length; step++){
+                    if (steps.get(step).condition.test(car)) {
+                        matched[step]++;
+                        steps.get(step).update.accept(car);
+                    }
+                }
+                if (!before.matches(car)) {
+                    changedCount++;
+                    priceChange += car.getPrice() - before.getPrice();
+                }
+            }
+            return new BulkUpdateSummary(view.size, changedCount, priceChange, matched);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<ICar> iterator(){
+        return Spliterators.iterator(spliterator());
+    }
+
+    @Override
+    public Spliterator<ICar> spliterator(){
+        View[] views = new View[this.segments.length];
+        int[] offsets = new int[this.segments.length + 1];
+        for (int i = 0; i < this.segments.length; i++){
+            views[i] = this.segments[i].view;
+            offsets[i + 1] = offsets[i] + views[i].size;
+        }
+        return new SegmentSpliterator(views, offsets, 0, offsets[views.length]);
+    }
+
+    // Holds every segment lock while copying, so the memento is a consistent cut across all writers
+    @Override
+    public GarageMemento save(){
+        lockAll();
+        try {
+            Object edit = new Object();
+            PersistentVector<CarRecord> records = PersistentVector.empty();
+            for (Segment segment: this.segments){
+                View view = segment.view;
+                for (int i = 0; i < view.size; i++){
+                    records = records.append(CarRecord.of(view.cars[i]), edit);
+                }
+            }
+            return new GarageMemento(records);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Cars this garage no longer holds may be in use elsewhere, so they are rebuilt rather than changed back
+    @Override
+    public void restore(GarageMemento memento){
+        PersistentVector<CarRecord> saved = memento.getRecords();
+        lockAll();
+        try {
+            Set<ICar> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Segment segment: this.segments){
+                View view = segment.view;
+                for (int i = 0; i < view.size; i++){
+                    owned.add(view.cars[i]);
+                    view.cars[i].removeObserver(this.priceObserver);
+                    this.totalPrice.add(-view.cars[i].getPrice());
+                }
+                segment.view = View.EMPTY;
+            }
+
+            ICar[][] restored = new ICar[this.segments.length][];
+            int perSegment = (saved.size() + this.segments.length - 1) / this.segments.length;
+            for (int i = 0; i < this.segments.length; i++){
+                int from = Math.min(saved.size(), i * perSegment);
+                int to = Math.min(saved.size(), from + perSegment);
+                restored[i] = new ICar[to - from];
+                for (int slot = from; slot < to; slot++){
+                    CarRecord record = saved.get(slot);
+                    restored[i][slot - from] = owned.contains(record.getCar())? record.revert(): record.detach().revert();
+                }
+            }
+            for (int i = 0; i < this.segments.length; i++){
+                for (ICar car: restored[i]){
+                    car.addObserver(this.priceObserver);
+                    this.totalPrice.add(car.getPrice());
+                }
+                this.segments[i].append(restored[i]);
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    // Starts at the segment picked by the current thread and takes the first one that is free,
+    // only waiting on the thread's own segment when all of them are busy
+    private Segment lockSegment(){
+        int home = (int) (Thread.currentThread().getId() % this.segments.length);
+        for (int i = 0; i < this.segments.length; i++){
+            Segment segment = this.segments[(home + i) % this.segments.length];
+            if (segment.lock.tryLock()) {
+                return segment;
+            }
+        }
+        Segment segment = this.segments[home];
+        segment.lock.lock();
+        return segment;
+    }
+
+    private void lockAll(){
+        for (Segment segment: this.segments){
+            segment.lock.lock();
+        }
+    }
+
+    private void unlockAll(){
+        for (int i = this.segments.length - 1; i >= 0; i--){
+            this.segments[i].lock.unlock();
+        }
+    }
+
+    private class PriceObserver implements CarObserver {
+        @Override
+        public void onCarChanged(ICar car) {
+        }
+
+        @Override
+        public void onPriceChanged(ICar car, int oldPrice) {
+            totalPrice.add(car.getPrice() - oldPrice);
+        }
+    }
+
+    // What readers see of a segment. An array is only ever written past the size of every view on it,
+    // removals copy the array instead.
+    private static final class View {
+        static final View EMPTY = new View(new ICar[0], 0);
+
+        final ICar[] cars;
+        final int size;
+
+        View(ICar[] cars, int size){
+            this.cars = cars;
+            this.size = size;
+        }
+    }
+
+    private static final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile View view = View.EMPTY;
+
+        void append(ICar[] added){
+            View current = this.view;
+            ICar[] cars = current.cars;
+            int size = current.size + added.length;
+            if (size > cars.length) {
+                cars = Arrays.copyOf(cars, Math.max(size, Math.max(16, cars.length + (cars.length >> 1))));
+            }
+            System.arraycopy(added, 0, cars, current.size, added.length);
+            this.view = new View(cars, size);
+        }
+
+        boolean remove(ICar car){
+            View current = this.view;
+            for (int i = 0; i < current.size; i++){
+                if (current.cars[i].equals(car)) {
+                    ICar[] cars = new ICar[current.cars.length];
+                    System.arraycopy(current.cars, 0, cars, 0, i);
+                    System.arraycopy(current.cars, i + 1, cars, i, current.size - i - 1);
+                    this.view = new View(cars, current.size - 1);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // Covers positions [index, fence) of the segment views concatenated in segment order
+    private static final class SegmentSpliterator implements Spliterator<ICar> {
+        private final View[] views;
+        private final int[] offsets;
+        private int index;
+        private final int fence;
+        private int segment;
+
+        SegmentSpliterator(View[] views, int[] offsets, int origin, int fence){
+            this.views = views;
+            this.offsets = offsets;
+            this.index = origin;
+            this.fence = fence;
+        }
+
+        private ICar current(){
+            while (this.offsets[this.segment + 1] <= this.index){
+                this.segment++;
+            }
+            return this.views[this.segment].cars[this.index - this.offsets[this.segment]];
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ICar> action) {
+            if (this.index >= this.fence) {
+                return false;
+            }
+            ICar car = current();
+            this.index++;
+            action.accept(car);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super ICar> action) {
+            while (this.index < this.fence){
+                action.accept(current());
+                this.index++;
+            }
+        }
+
+        @Override
+        public Spliterator<ICar> trySplit() {
+            int middle = (this.index + this.fence) >>> 1;
+            if (this.index >= middle) {
+                return null;
+            }
+            SegmentSpliterator prefix = new SegmentSpliterator(this.views, this.offsets, this.index, middle);
+            prefix.segment = this.segment;
+            this.index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.fence - this.index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        }
+    }
+}
@@ -5,9 +5,28 @@ import main.Enums.FuelType;
 import main.Transmissions.Transmission;
 
 import java.security.InvalidParameterException;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class Engine {
+    private static final EngineInterner interner = new EngineInterner();
+    private static volatile boolean interning = false;
+
+    // Horse power of one cylinder before the engine type and fuel multipliers
+    private static final int BASE_POWER = 17;
+    private static final int FUEL_TYPES = FuelType.values().length;
+    // Engine type multiplier times fuel multiplier, one row per engine type and a last one for engines without a type
+    private static final float[] MULTIPLIERS = new float[(EngineType.values().length + 1) * FUEL_TYPES];
+    private static final int BATCH_SIZE = 1024;
+
+    static {
+        for (FuelType fuelType: FuelType.values()){
+            for (EngineType engineType: EngineType.values()){
+                MULTIPLIERS[multiplierIndex(engineType, fuelType)] = engineTypeMultiplier(engineType) * fuelTypeMultiplier(fuelType);
+            }
+            MULTIPLIERS[multiplierIndex(null, fuelType)] = engineTypeMultiplier(null) * fuelTypeMultiplier(fuelType);
+        }
+    }
+
     private final String model; // required
     private final int cylinders; // required
     private final FuelType fuelType; // required
@@ -28,6 +47,95 @@ public class Engine {
         this.transmission = builder.transmission;
     }
 
+    // When on, build() hands out one shared engine per spec (everything but the horse power)
+    // and only the first one built for a spec is recorded as manufactured
+    public static void setInterning(boolean enabled){
+        interning = enabled;
+    }
+
+    public static boolean isInterning(){
+        return interning;
+    }
+
+    // Number of distinct engines currently shared by interning
+    public static int getInternedCount(){
+        return interner.size();
+    }
+
+    // Horse power of every (cylinders, fuel type, engine type) spec with the jitter of each drawn from rnd in order,
+    // the same as building the engines one by one from that stream.
+    // Table lookups and draws come first, then a branch free loop over primitive arrays the JIT can vectorize.
+    public static void calculateHorsePowers(int[] cylinders, FuelType[] fuelTypes, EngineType[] engineTypes, SplittableRandom rnd, int[] horsePowers){
+        int count = cylinders.length;
+        if (fuelTypes.length != count || engineTypes.length != count || horsePowers.length < count) {
+            throw new IllegalArgumentException("Spec arrays differ in length");
+        }
+        float[] multipliers = new float[Math.min(count, BATCH_SIZE)];
+        float[] extras = new float[multipliers.length];
+        for (int from = 0; from < count; from += BATCH_SIZE){
+            int n = Math.min(BATCH_SIZE, count - from);
+            for (int i = 0; i < n; i++){
+                multipliers[i] = MULTIPLIERS[multiplierIndex(engineTypes[from + i], fuelTypes[from + i])];
+                extras[i] = (float) rnd.nextDouble() / 4 + 1;
+            }
+            for (int i = 0; i < n; i++){
+                horsePowers[from + i] = (int)(BASE_POWER * cylinders[from + i] * multipliers[i] * extras[i]);
+            }
+        }
+    }
+
+    private static int multiplierIndex(EngineType engineType, FuelType fuelType){
+        int row = engineType == null? MULTIPLIERS.length / FUEL_TYPES - 1: engineType.ordinal();
+        return row * FUEL_TYPES + fuelType.ordinal();
+    }
+
+    private static float engineTypeMultiplier(EngineType engineType){
+        float engineTypeMultiplier;
+
+        if (engineType == null){
+            engineTypeMultiplier = 1.7f;
+        } else {
+            switch (engineType) {
+                case STRAIGHT:
+                    engineTypeMultiplier = 1.7f;
+                    break;
+                case V_TYPE:
+                    engineTypeMultiplier = 2;
+                    break;
+                case FLAT:
+                    engineTypeMultiplier = 1.9f;
+                    break;
+                case W_TYPE:
+                    engineTypeMultiplier = 2.2f;
+                    break;
+                default:
+                    engineTypeMultiplier = 1.7f;
+            }
+        }
+        return engineTypeMultiplier;
+    }
+
+    private static float fuelTypeMultiplier(FuelType type){
+        float typeMultiplier;
+        switch (type){
+            case PETROL:
+                typeMultiplier = 1.4f;
+                break;
+            case DIESEL:
+                typeMultiplier = 1.5f;
+                break;
+            case GAS:
+                typeMultiplier = 0.75f;
+                break;
+            case HYBRID:
+                typeMultiplier = 1.12f;
+                break;
+            default:
+                typeMultiplier = 1.4f;
+        }
+        return typeMultiplier;
+    }
+
     // Disclude setters to provide immutability
     public String getModel(){
         return this.model;
@@ -77,6 +185,7 @@ public class Engine {
         private int year;
         private String country;
         private Transmission transmission;
+        private GenerationContext context;
 
         EngineBuilder(String model, int cylinders, FuelType fuelType){
             if (model == null || model.isEmpty()) {
@@ -108,61 +217,38 @@ public class Engine {
             return this;
         }
 
+        // Where the horse power spread is drawn from, the default context if none is given
+        EngineBuilder context(GenerationContext context){
+            this.context = context;
+            return this;
+        }
+
         Engine build(){
-            this.horsePower = CalculateHorsePower(this.cylinders, this.fuelType, this.type);
-            Engine engine = new Engine(this);
-            if (PreferencesSingleton.getInstance() != null) {
-                PreferencesSingleton.getInstance().appendManufacturedEngine(engine);
+            if (!interning) {
+                return register(create());
             }
-            return engine;
+            Engine[] built = new Engine[1];
+            EngineInterner.Spec spec = new EngineInterner.Spec(this.model, this.cylinders, this.fuelType, this.type, this.year, this.country, this.transmission);
+            Engine engine = interner.intern(spec, () -> built[0] = create());
+            return engine == built[0]? register(engine): engine;
         }
 
-        private static int CalculateHorsePower(int cylinders, FuelType type, EngineType engineType) {
-            int basePower = 17;
-            float engineTypeMultiplier;
-
-            if (engineType == null){
-                engineTypeMultiplier = 1.7f;
-            } else {
-                switch (engineType) {
-                    case STRAIGHT:
-                        engineTypeMultiplier = 1.7f;
-                        break;
-                    case V_TYPE:
-                        engineTypeMultiplier = 2;
-                        break;
-                    case FLAT:
-                        engineTypeMultiplier = 1.9f;
-                        break;
-                    case W_TYPE:
-                        engineTypeMultiplier = 2.2f;
-                        break;
-                    default:
-                        engineTypeMultiplier = 1.7f;
-                }
-            }
+        private Engine create(){
+            GenerationContext context = this.context != null? this.context: GenerationContext.getDefault();
+            this.horsePower = CalculateHorsePower(this.cylinders, this.fuelType, this.type, context.random());
+            return new Engine(this);
+        }
 
-            float typeMultiplier;
-            switch (type){
-                case PETROL:
-                    typeMultiplier = 1.4f;
-                    break;
-                case DIESEL:
-                    typeMultiplier = 1.5f;
-                    break;
-                case GAS:
-                    typeMultiplier = 0.75f;
-                    break;
-                case HYBRID:
-                    typeMultiplier = 1.12f;
-                    break;
-                default:
-                    typeMultiplier = 1.4f;
+        private static Engine register(Engine engine){
+            if (PreferencesSingleton.getInstance() != null) {
+                PreferencesSingleton.getInstance().appendManufacturedEngine(engine);
             }
+            return engine;
+        }
 
-            float randomExtra = new Random().nextFloat() / 4 + 1;
-
-            return (int)(basePower * cylinders * engineTypeMultiplier * typeMultiplier * randomExtra);
+        private static int CalculateHorsePower(int cylinders, FuelType type, EngineType engineType, SplittableRandom rnd) {
+            float randomExtra = (float) rnd.nextDouble() / 4 + 1;
+            return (int)(BASE_POWER * cylinders * MULTIPLIERS[multiplierIndex(engineType, type)] * randomExtra);
         }
     }
 }
@@ -0,0 +1,114 @@
+package main;
+
+import main.Enums.EngineType;
+import main.Enums.FuelType;
+import main.Transmissions.Transmission;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Canonical engines by spec. Values are weakly held: once no car uses an engine anymore it can be collected,
+// and its entry is dropped on a later intern() call. The transmission is compared by identity, it is mutable.
+final class EngineInterner {
+    private final ConcurrentHashMap<Spec, EngineReference> engines = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Engine> collected = new ReferenceQueue<>();
+
+    // The engine already built for the spec, or the one from the builder if there is none
+    Engine intern(Spec spec, Supplier<Engine> builder){
+        purge();
+        EngineReference reference = this.engines.get(spec);
+        Engine engine = reference != null? reference.get(): null;
+        if (engine != null) {
+            return engine;
+        }
+
+        Engine built = builder.get();
+        EngineReference added = new EngineReference(built, spec, this.collected);
+        while (true){
+            EngineReference existing = this.engines.putIfAbsent(spec, added);
+            if (existing == null) {
+                return built;
+            }
+            engine = existing.get();
+            if (engine != null) {
+                return engine;
+            }
+            if (this.engines.replace(spec, existing, added)) {
+                return built;
+            }
+        }
+    }
+
+    int size(){
+        purge();
+        return this.engines.size();
+    }
+
+    private void purge(){
+        EngineReference reference;
+        while ((reference = (EngineReference) this.collected.poll()) != null){
+            this.engines.remove(reference.spec, reference);
+        }
+    }
+
+    static final class Spec {
+        private final String model;
+        private final int cylinders;
+        private final FuelType fuelType;
+        private final EngineType type;
+        private final int year;
+        private final String country;
+        private final Transmission transmission;
+
+        Spec(String model, int cylinders, FuelType fuelType, EngineType type, int year, String country, Transmission transmission){
+            this.model = model;
+            this.cylinders = cylinders;
+            this.fuelType = fuelType;
+            this.type = type;
+            this.year = year;
+            this.country = country;
+            this.transmission = transmission;
+        }
+
+        @Override
+        public boolean equals(Object o){
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Spec)) {
+                return false;
+            }
+            Spec other = (Spec) o;
+            return this.cylinders == other.cylinders
+                    && this.year == other.year
+                    && this.fuelType == other.fuelType
+                    && this.type == other.type
+                    && this.transmission == other.transmission
+                    && this.model.equals(other.model)
+                    && Objects.equals(this.country, other.country);
+        }
+
+        @Override
+        public int hashCode(){
+            int hash = this.model.hashCode();
+            hash = 31 * hash + this.cylinders;
+            hash = 31 * hash + Objects.hashCode(this.fuelType);
+            hash = 31 * hash + Objects.hashCode(this.type);
+            hash = 31 * hash + this.year;
+            hash = 31 * hash + Objects.hashCode(this.country);
+            return 31 * hash + System.identityHashCode(this.transmission);
+        }
+    }
+
+    private static final class EngineReference extends WeakReference<Engine> {
+        final Spec spec;
+
+        EngineReference(Engine engine, Spec spec, ReferenceQueue<Engine> queue){
+            super(engine, queue);
+            this.spec = spec;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package main.Events;
+
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Hands events to a background thread through a bounded ring buffer without taking any lock.
+// A publisher claims the next sequence with one atomic increment, stores the event in its slot and then
+// marks the slot with the sequence; the writer thread takes slots in sequence order once they are marked,
+// formats them in batches and writes every batch with a single call.
+// Publishers only wait when the buffer is full. close() sets a bit in the claim counter, so every sequence
+// claimed before it is still written before the thread stops, and events published after that are written
+// by the publishing thread. So are events waiting for room once the writer thread died.
+// An event that fails to format is reported on System.err and skipped.
+public final class AsyncEventSink implements EventSink, Closeable {
+    private static final long IDLE_NANOS = 1_000_000;
+    private static final long CLOSED = 1L << 62;
+
+    private final Event[] events;
+    private final AtomicLongArray marks;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile long written;
+    private volatile boolean idle;
+    private volatile long end = Long.MAX_VALUE;
+    private final PrintStream out;
+    private final Thread writer;
+
+    public AsyncEventSink(){
+        this(System.out, 8192);
+    }
+
+    // The capacity is rounded up to a power of two
+    public AsyncEventSink(PrintStream out, int capacity){
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(size, 1);
+        this.events = new Event[size];
+        this.marks = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++){
+            this.marks.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.out = out;
+        this.writer = new Thread(this::write, "event-sink");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(Event event) {
+        long sequence = this.claimed.getAndIncrement();
+        if ((sequence & CLOSED) != 0) {
+            // late events are written right away, out of order
+            writeNow(event);
+            return;
+        }
+        while (sequence - this.consumed >= this.events.length){
+            if (!this.writer.isAlive()) {
+                writeNow(event);
+                return;
+            }
+            LockSupport.unpark(this.writer);
+            Thread.yield();
+        }
+        int index = (int) sequence & this.mask;
+        this.events[index] = event;
+        this.marks.lazySet(index, sequence);
+        if (this.idle) {
+            LockSupport.unpark(this.writer);
+        }
+    }
+
+    @Override
+    public void flush() {
+        long target = Math.min(this.claimed.get() & ~CLOSED, this.end);
+        while (this.written < target && this.writer.isAlive()){
+            LockSupport.unpark(this.writer);
+            LockSupport.parkNanos(this, IDLE_NANOS / 10);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        long claim = this.claimed.get();
+        while ((claim & CLOSED) == 0){
+            if (this.claimed.compareAndSet(claim, claim | CLOSED)) {
+                this.end = claim;
+                break;
+            }
+            claim = this.claimed.get();
+        }
+        LockSupport.unpark(this.writer);
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(){
+        StringBuilder batch = new StringBuilder(8192);
+        long next = this.consumed;
+        while (true){
+            int index = (int) next & this.mask;
+            if (this.marks.get(index) == next) {
+                Event event = this.events[index];
+                this.events[index] = null;
+                this.consumed = ++next;
+                int length = batch.length();
+                try {
+                    event.appendTo(batch);
+                    batch.append(System.lineSeparator());
+                } catch (RuntimeException e) {
+                    batch.setLength(length);
+                    System.err.println("Could not write " + event.getClass().getSimpleName() + ": " + e);
+                }
+                if (batch.length() < 8192) {
+                    continue;
+                }
+            }
+
+            if (batch.length() > 0) {
+                this.out.print(batch);
+                this.out.flush();
+                batch.setLength(0);
+            }
+            this.written = next;
+            index = (int) next & this.mask;
+            if (this.marks.get(index) == next) {
+                continue;
+            }
+            if (next == this.end) {
+                return;
+            }
+            this.idle = true;
+            if (this.marks.get(index) != next) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+            this.idle = false;
+        }
+    }
+
+    private void writeNow(Event event){
+        StringBuilder text = new StringBuilder();
+        event.appendTo(text);
+        this.out.println(text);
+    }
+}
@@ -0,0 +1,23 @@
+package main.Events;
+
+public final class CashbackEvent implements Event {
+    private final double spentAmount;
+    private final float cashbackRate;
+    private final int cashback;
+
+    public CashbackEvent(double spentAmount, float cashbackRate, int cashback){
+        this.spentAmount = spentAmount;
+        this.cashbackRate = cashbackRate;
+        this.cashback = cashback;
+    }
+
+    public int getCashback(){
+        return this.cashback;
+    }
+
+    @Override
+    public void appendTo(StringBuilder text) {
+        text.append("[!] Observer: Account balance changed! Withdrawn amount: $").append(this.spentAmount)
+                .append(" Cashback(").append(this.cashbackRate).append("%): $").append(this.cashback);
+    }
+}
@@ -0,0 +1,11 @@
+package main.Events;
+
+// Writes every event to System.out right away, on the publishing thread
+public class ConsoleEventSink implements EventSink {
+    @Override
+    public void publish(Event event) {
+        StringBuilder text = new StringBuilder();
+        event.appendTo(text);
+        System.out.println(text);
+    }
+}
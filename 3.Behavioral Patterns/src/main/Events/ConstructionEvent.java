@@ -0,0 +1,43 @@
+package main.Events;
+
+import main.Enums.CarType;
+import main.Enums.TransmissionType;
+
+// A car or transmission being built. There is one shared instance per type, publishing one allocates nothing.
+public final class ConstructionEvent implements Event {
+    private static final ConstructionEvent[] CARS = new ConstructionEvent[CarType.values().length];
+    private static final ConstructionEvent[] TRANSMISSIONS = new ConstructionEvent[TransmissionType.values().length];
+
+    static {
+        for (CarType type: CarType.values()){
+            String name = type.name().toLowerCase();
+            CARS[type.ordinal()] = new ConstructionEvent(Character.toUpperCase(name.charAt(0)) + name.substring(1) + " car");
+        }
+        for (TransmissionType type: TransmissionType.values()){
+            TRANSMISSIONS[type.ordinal()] = new ConstructionEvent(type.name().toLowerCase() + " transmission");
+        }
+    }
+
+    private final String part;
+
+    private ConstructionEvent(String part){
+        this.part = part;
+    }
+
+    public static ConstructionEvent of(CarType type){
+        return CARS[type.ordinal()];
+    }
+
+    public static ConstructionEvent of(TransmissionType type){
+        return TRANSMISSIONS[type.ordinal()];
+    }
+
+    public String getPart(){
+        return this.part;
+    }
+
+    @Override
+    public void appendTo(StringBuilder text) {
+        text.append("Building ").append(this.part).append("...");
+    }
+}
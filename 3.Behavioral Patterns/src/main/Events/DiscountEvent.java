@@ -0,0 +1,18 @@
+package main.Events;
+
+public final class DiscountEvent implements Event {
+    private final float percentage;
+
+    public DiscountEvent(float percentage){
+        this.percentage = percentage;
+    }
+
+    public float getPercentage(){
+        return this.percentage;
+    }
+
+    @Override
+    public void appendTo(StringBuilder text) {
+        text.append("\nApplied a discount of ").append(this.percentage).append("% for all cars in this garage!");
+    }
+}
@@ -0,0 +1,7 @@
+package main.Events;
+
+// Something worth telling the user about. Events keep their values and are only turned into text
+// by the sink that ends up writing them, so a sink that drops them never pays for the formatting.
+public interface Event {
+    void appendTo(StringBuilder text);
+}
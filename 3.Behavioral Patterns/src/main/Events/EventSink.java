@@ -0,0 +1,8 @@
+package main.Events;
+
+public interface EventSink {
+    void publish(Event event);
+
+    // Returns once every event published before the call has been written
+    default void flush(){ }
+}
@@ -0,0 +1,25 @@
+package main.Events;
+
+// Where the hot paths send their messages instead of System.out.
+// The console sink is the default; setSink(new AsyncEventSink()) moves the writing to a background
+// thread and setSink(Events.NONE) drops every event without formatting it.
+public final class Events {
+    public static final EventSink NONE = event -> { };
+
+    private static volatile EventSink sink = new ConsoleEventSink();
+
+    private Events(){ }
+
+    public static void publish(Event event){
+        sink.publish(event);
+    }
+
+    public static EventSink getSink(){
+        return sink;
+    }
+
+    public static void setSink(EventSink newSink){
+        sink.flush();
+        sink = newSink;
+    }
+}
@@ -0,0 +1,22 @@
+package main.Events;
+
+// What the protection proxy tells the user
+public enum GarageDoorsEvent implements Event {
+    OPENED("Doors to your garage are now open! You can apply discounts..."),
+    WRONG_PASSWORD("No! You can not open doors to that garage!"),
+    ALREADY_OPEN("Doors to your garage are already open."),
+    CLOSED("Doors are now closed!"),
+    APPLYING_DISCOUNT("Applying discounts to your garage!"),
+    DISCOUNT_REFUSED("Doors to this garage are closed! You are not allowed to make any changes!");
+
+    private final String message;
+
+    GarageDoorsEvent(String message){
+        this.message = message;
+    }
+
+    @Override
+    public void appendTo(StringBuilder text) {
+        text.append(this.message);
+    }
+}
@@ -0,0 +1,40 @@
+package main.Events;
+
+public final class PaymentEvent implements Event {
+    public enum Outcome {PAID, PASSED_ON, DECLINED}
+
+    private final Outcome outcome;
+    private final Class<?> account;
+    private final double amount;
+    private final double remaining;
+
+    public PaymentEvent(Outcome outcome, Class<?> account, double amount, double remaining){
+        this.outcome = outcome;
+        this.account = account;
+        this.amount = amount;
+        this.remaining = remaining;
+    }
+
+    public Outcome getOutcome(){
+        return this.outcome;
+    }
+
+    public double getAmount(){
+        return this.amount;
+    }
+
+    @Override
+    public void appendTo(StringBuilder text) {
+        switch (this.outcome){
+            case PAID:
+                text.append("Paid $").append(this.amount).append(" using ").append(this.account.getSimpleName())
+                        .append(" Remaining: ").append(this.remaining);
+                break;
+            case PASSED_ON:
+                text.append("Can not pay $").append(this.amount).append(" using ").append(this.account.getSimpleName()).append(". Proceeding...");
+                break;
+            default:
+                text.append("Can not pay $").append(this.amount).append(" with ").append(this.account.getSimpleName());
+        }
+    }
+}
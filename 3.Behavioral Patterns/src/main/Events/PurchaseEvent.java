@@ -0,0 +1,41 @@
+package main.Events;
+
+import main.Enums.Manufacturer;
+
+public final class PurchaseEvent implements Event {
+    public enum Outcome {NOT_FOR_SALE, PURCHASED, FAILED}
+
+    private final Outcome outcome;
+    private final Manufacturer manufacturer;
+    private final String model;
+    private final int price;
+
+    public PurchaseEvent(Outcome outcome, Manufacturer manufacturer, String model, int price){
+        this.outcome = outcome;
+        this.manufacturer = manufacturer;
+        this.model = model;
+        this.price = price;
+    }
+
+    public Outcome getOutcome(){
+        return this.outcome;
+    }
+
+    public int getPrice(){
+        return this.price;
+    }
+
+    @Override
+    public void appendTo(StringBuilder text) {
+        switch (this.outcome){
+            case NOT_FOR_SALE:
+                text.append(this.manufacturer).append(' ').append(this.model).append(" can not be sold.");
+                break;
+            case PURCHASED:
+                text.append(this.manufacturer).append(' ').append(this.model).append(" was purchased by $").append(this.price);
+                break;
+            default:
+                text.append("Purchase failed for: ").append(this.manufacturer).append(' ').append(this.model);
+        }
+    }
+}
@@ -3,35 +3,71 @@ package main.Factories;
 import main.Cars.Car;
 import main.Enums.CarType;
 import main.Enums.Manufacturer;
-import main.Factories.Manufacturers.AudiCarFactory;
-import main.Factories.Manufacturers.BMWCarFactory;
-import main.Factories.Manufacturers.MercedesCarFactory;
+import main.GenerationContext;
 import main.PreferencesSingleton;
-import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Dispatches to the manufacturer factories found through ServiceLoader, see ManufacturerCarFactory
 public class CarFactory {
     private CarFactory(){ }
 
     public static Car buildCar(Manufacturer manufacturer, CarType type){
-        Car car = null;
-
-        switch(manufacturer){
-            case BMW:
-                car = BMWCarFactory.buildCar(type);
-                break;
-            case AUDI:
-                car = AudiCarFactory.buildCar(type);
-                break;
-            case MERCEDES:
-                car = MercedesCarFactory.buildCar(type);
-                break;
-            default:
-                System.out.println("[!] " + type + " factory does not exist yet!");
-                throw new NotImplementedException();
-        }
+        return buildCar(manufacturer, type, GenerationContext.getDefault());
+    }
+
+    public static Car buildCar(Manufacturer manufacturer, CarType type, GenerationContext context){
+        Car car = factoryOf(manufacturer).buildCar(type, context);
         if (PreferencesSingleton.getInstance() != null) {
             PreferencesSingleton.getInstance().appendManufacturedCar(car);
         }
         return car;
     }
+
+    // Builds count cars of one type: the manufacturer factory is picked once, the model indices
+    // come from a single random stream and the whole batch is registered at once
+    public static Car[] buildCars(Manufacturer manufacturer, CarType type, int count){
+        return buildCars(manufacturer, type, count, GenerationContext.getDefault());
+    }
+
+    public static Car[] buildCars(Manufacturer manufacturer, CarType type, int count, GenerationContext context){
+        ManufacturerCarFactory factory = factoryOf(manufacturer);
+        Car[] cars = new Car[count];
+        SplittableRandom rnd = context.random();
+        int year = context.currentYear();
+        for (int i = 0; i < count; i++){
+            cars[i] = factory.buildCar(type, rnd.nextInt(99) * 100, year);
+        }
+        register(cars);
+        return cars;
+    }
+
+    // Builds a car with the given model index and year without registering it,
+    // so bulk builders can register all of their cars at once with register(...)
+    public static Car createCar(Manufacturer manufacturer, CarType type, int modelIndex, int year){
+        return factoryOf(manufacturer).buildCar(type, modelIndex, year);
+    }
+
+    public static String modelName(Manufacturer manufacturer, CarType type, int modelIndex){
+        return factoryOf(manufacturer).modelName(type, modelIndex);
+    }
+
+    public static boolean isAvailable(Manufacturer manufacturer){
+        return ManufacturerFactories.contains(manufacturer);
+    }
+
+    public static void register(Car... cars){
+        if (PreferencesSingleton.getInstance() != null) {
+            PreferencesSingleton.getInstance().appendManufacturedCars(Arrays.asList(cars));
+        }
+    }
+
+    private static ManufacturerCarFactory factoryOf(Manufacturer manufacturer){
+        ManufacturerCarFactory factory = ManufacturerFactories.get(manufacturer);
+        if (factory == null) {
+            throw new UnsupportedOperationException(manufacturer + " factory does not exist yet!");
+        }
+        return factory;
+    }
 }
@@ -0,0 +1,152 @@
+package main.Factories;
+
+import main.Cars.Car;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.GenerationContext;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+// Opt-in pooled mode of CarFactory for code that builds and throws away many cars.
+// Released cars are kept per car type and handed out again by acquire(...) after a full reset,
+// so a warm pool builds no new cars at all.
+// Every thread works on its own small cache first and only goes to the shared pool,
+// a batch at a time, when its cache runs empty or full.
+// A car must not be used anymore once it is released. Releasing it twice, or while a garage
+// or anything else still observes it, is refused.
+// Only newly built cars are registered in PreferencesSingleton, recycled ones already are.
+public class CarPool {
+    private static final CarType[] CAR_TYPES = CarType.values();
+
+    private final int localCapacity;
+    private final SharedStack[] shared = new SharedStack[CAR_TYPES.length];
+    private final ThreadLocal<LocalCache> local;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public CarPool(){
+        this(64, 4096);
+    }
+
+    // Up to localCapacity cars of each type are cached per thread and sharedCapacity in the shared pool,
+    // cars released past that are left to the garbage collector
+    public CarPool(int localCapacity, int sharedCapacity){
+        if (localCapacity < 2 || sharedCapacity < 0) {
+            throw new IllegalArgumentException("Invalid pool capacity: " + localCapacity + " per thread, " + sharedCapacity + " shared");
+        }
+        this.localCapacity = localCapacity;
+        for (int i = 0; i < this.shared.length; i++){
+            this.shared[i] = new SharedStack(sharedCapacity);
+        }
+        this.local = ThreadLocal.withInitial(() -> new LocalCache(localCapacity));
+    }
+
+    // Same as CarFactory.buildCar: a random model of the current year
+    public Car acquire(Manufacturer manufacturer, CarType type){
+        GenerationContext context = GenerationContext.getDefault();
+        return acquire(manufacturer, type, context.random().nextInt(99) * 100, context.currentYear());
+    }
+
+    public Car acquire(Manufacturer manufacturer, CarType type, int modelIndex, int year){
+        LocalCache cache = this.local.get();
+        int t = type.ordinal();
+        if (cache.sizes[t] == 0) {
+            cache.sizes[t] = this.shared[t].take(cache.cars[t], this.localCapacity / 2);
+        }
+        if (cache.sizes[t] == 0) {
+            this.misses.increment();
+            Car car = CarFactory.createCar(manufacturer, type, modelIndex, year);
+            CarFactory.register(car);
+            return car;
+        }
+
+        this.hits.increment();
+        Car car = cache.cars[t][--cache.sizes[t]];
+        cache.cars[t][cache.sizes[t]] = null;
+        car.clearPooled();
+        car.reset(manufacturer, CarFactory.modelName(manufacturer, type, modelIndex), year);
+        return car;
+    }
+
+    public void release(Car... cars){
+        LocalCache cache = this.local.get();
+        for (Car car: cars){
+            if (car.hasObservers()) {
+                throw new IllegalArgumentException(car + " is still observed, remove it from its garage first");
+            }
+            if (!car.markPooled()) {
+                throw new IllegalArgumentException(car + " was already released");
+            }
+            int t = car.getType().ordinal();
+            if (cache.sizes[t] == this.localCapacity) {
+                int moved = this.shared[t].put(cache.cars[t], this.localCapacity / 2, this.localCapacity);
+                this.discarded.add(this.localCapacity / 2 - moved);
+                cache.sizes[t] = this.localCapacity / 2;
+            }
+            cache.cars[t][cache.sizes[t]++] = car;
+        }
+    }
+
+    public long getHits(){
+        return this.hits.sum();
+    }
+
+    public long getMisses(){
+        return this.misses.sum();
+    }
+
+    // Released cars dropped because the shared pool was full
+    public long getDiscarded(){
+        return this.discarded.sum();
+    }
+
+    public double getHitRate(){
+        long hits = this.hits.sum();
+        long total = hits + this.misses.sum();
+        return total == 0? 0: (double) hits / total;
+    }
+
+    @Override
+    public String toString(){
+        return String.format("CarPool: %d hits, %d misses (%.1f%% hit rate), %d discarded",
+                getHits(), getMisses(), getHitRate() * 100, getDiscarded());
+    }
+
+    private static final class LocalCache {
+        final Car[][] cars;
+        final int[] sizes = new int[CAR_TYPES.length];
+
+        LocalCache(int capacity){
+            this.cars = new Car[CAR_TYPES.length][capacity];
+        }
+    }
+
+    private static final class SharedStack {
+        private final Car[] cars;
+        private int size;
+
+        SharedStack(int capacity){
+            this.cars = new Car[capacity];
+        }
+
+        // Moves up to count cars into the start of the empty target, returns how many were moved
+        synchronized int take(Car[] target, int count){
+            int taken = Math.min(count, this.size);
+            this.size -= taken;
+            System.arraycopy(this.cars, this.size, target, 0, taken);
+            Arrays.fill(this.cars, this.size, this.size + taken, null);
+            return taken;
+        }
+
+        // Moves source[from, to) in as far as there is room and clears it, returns how many were kept
+        synchronized int put(Car[] source, int from, int to){
+            int kept = Math.min(to - from, this.cars.length - this.size);
+            System.arraycopy(source, from, this.cars, this.size, kept);
+            this.size += kept;
+            Arrays.fill(source, from, to, null);
+            return kept;
+        }
+    }
+}
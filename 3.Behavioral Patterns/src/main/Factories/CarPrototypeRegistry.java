@@ -0,0 +1,68 @@
+package main.Factories;
+
+import main.Cars.Car;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.GenerationContext;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Builds cars by cloning one template per (manufacturer, car type) instead of going through
+// the manufacturer factories, so the construction path runs once per template and never again.
+// Templates can be preloaded or registered fully configured (price, color scheme, ...);
+// a missing one is built by CarFactory the first time it is asked for.
+public class CarPrototypeRegistry {
+    private static final CarType[] CAR_TYPES = CarType.values();
+
+    private final AtomicReferenceArray<Car> templates = new AtomicReferenceArray<>(Manufacturer.values().length * CAR_TYPES.length);
+
+    // Builds the templates of every car type of the manufacturers
+    public CarPrototypeRegistry preload(Manufacturer... manufacturers){
+        for (Manufacturer manufacturer: manufacturers){
+            for (CarType type: CAR_TYPES){
+                template(manufacturer, type);
+            }
+        }
+        return this;
+    }
+
+    // Keeps a copy of the car as the template of its manufacturer and type,
+    // later changes to the car do not change the template
+    public CarPrototypeRegistry register(Car template){
+        this.templates.set(indexOf(template.getManufacturer(), template.getType()), template.clone());
+        return this;
+    }
+
+    public boolean contains(Manufacturer manufacturer, CarType type){
+        return this.templates.get(indexOf(manufacturer, type)) != null;
+    }
+
+    public Car build(Manufacturer manufacturer, CarType type){
+        Car car = template(manufacturer, type).clone();
+        CarFactory.register(car);
+        return car;
+    }
+
+    // A copy of the template with the given model and year
+    public Car build(Manufacturer manufacturer, CarType type, int modelIndex, int year){
+        Car car = template(manufacturer, type).clone();
+        car.setModel(CarFactory.modelName(manufacturer, type, modelIndex));
+        car.setYear(year);
+        CarFactory.register(car);
+        return car;
+    }
+
+    private Car template(Manufacturer manufacturer, CarType type){
+        int index = indexOf(manufacturer, type);
+        Car template = this.templates.get(index);
+        if (template == null) {
+            Car built = CarFactory.createCar(manufacturer, type, 0, GenerationContext.getDefault().currentYear());
+            template = this.templates.compareAndSet(index, null, built)? built: this.templates.get(index);
+        }
+        return template;
+    }
+
+    private static int indexOf(Manufacturer manufacturer, CarType type){
+        return manufacturer.ordinal() * CAR_TYPES.length + type.ordinal();
+    }
+}
@@ -0,0 +1,29 @@
+package main.Factories;
+
+import main.Cars.Car;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.GenerationContext;
+
+import java.util.SplittableRandom;
+
+// Builds the cars of one manufacturer. Implementations are found by CarFactory through ServiceLoader:
+// a new brand only needs a class with a public no-arg constructor listed in
+// META-INF/services/main.Factories.ManufacturerCarFactory.
+public interface ManufacturerCarFactory {
+    Manufacturer getManufacturer();
+
+    Car buildCar(CarType type, int modelIndex, int year);
+
+    String modelName(CarType type, int modelIndex);
+
+    // A random model of the current year
+    default Car buildCar(CarType type){
+        return buildCar(type, GenerationContext.getDefault());
+    }
+
+    default Car buildCar(CarType type, GenerationContext context){
+        SplittableRandom rnd = context.random();
+        return buildCar(type, rnd.nextInt(99) * 100, context.currentYear());
+    }
+}
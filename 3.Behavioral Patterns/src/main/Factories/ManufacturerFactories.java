@@ -0,0 +1,44 @@
+package main.Factories;
+
+import main.Enums.Manufacturer;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+// The manufacturer factories found so far, by manufacturer.
+// The ServiceLoader iterator instantiates providers one at a time, so a factory is only loaded
+// when its manufacturer (or one listed after it) is asked for the first time.
+// Lookups read a map that is never changed once published and take no lock.
+final class ManufacturerFactories {
+    private static volatile EnumMap<Manufacturer, ManufacturerCarFactory> factories = new EnumMap<>(Manufacturer.class);
+    private static Iterator<ManufacturerCarFactory> providers;
+
+    private ManufacturerFactories(){ }
+
+    static ManufacturerCarFactory get(Manufacturer manufacturer){
+        ManufacturerCarFactory factory = factories.get(manufacturer);
+        return factory != null? factory: discover(manufacturer);
+    }
+
+    static boolean contains(Manufacturer manufacturer){
+        return factories.containsKey(manufacturer) || discover(manufacturer) != null;
+    }
+
+    private static synchronized ManufacturerCarFactory discover(Manufacturer manufacturer){
+        if (providers == null) {
+            providers = ServiceLoader.load(ManufacturerCarFactory.class).iterator();
+        }
+        ManufacturerCarFactory factory = factories.get(manufacturer);
+        while (factory == null && providers.hasNext()){
+            ManufacturerCarFactory found = providers.next();
+            if (!factories.containsKey(found.getManufacturer())) {
+                EnumMap<Manufacturer, ManufacturerCarFactory> updated = new EnumMap<>(factories);
+                updated.put(found.getManufacturer(), found);
+                factories = updated;
+            }
+            factory = factories.get(manufacturer);
+        }
+        return factory;
+    }
+}
@@ -6,29 +6,45 @@ import main.Cars.SavCar;
 import main.Cars.SedanCar;
 import main.Enums.CarType;
 import main.Enums.Manufacturer;
-import sun.reflect.generics.reflectiveObjects.NotImplementedException;
-import java.util.Calendar;
-import java.util.Random;
+import main.Factories.ManufacturerCarFactory;
 
-public class BMWCarFactory {
-    public static Car buildCar(CarType type){
+public class BMWCarFactory implements ManufacturerCarFactory {
+    @Override
+    public Manufacturer getManufacturer(){
+        return Manufacturer.BMW;
+    }
+
+    @Override
+    public Car buildCar(CarType type, int modelIndex, int year){
         Car car;
-        int year = Calendar.getInstance().get(Calendar.YEAR);
-        int modelIndex = new Random().nextInt(99) * 100;
 
         switch (type){
             case SEDAN:
-                car = new SedanCar(Manufacturer.BMW, "S" + modelIndex, year);
+                car = new SedanCar(Manufacturer.BMW, modelName(type, modelIndex), year);
                 break;
             case SAV:
-                car = new SavCar(Manufacturer.BMW, "X" + modelIndex, year);
+                car = new SavCar(Manufacturer.BMW, modelName(type, modelIndex), year);
                 break;
             case LUXURY:
-                car = new LuxuryCar(Manufacturer.BMW, "L" + modelIndex, year);
+                car = new LuxuryCar(Manufacturer.BMW, modelName(type, modelIndex), year);
                 break;
             default:
-                throw new NotImplementedException();
+                throw new IllegalArgumentException("Unknown car type: " + type);
         }
         return car;
     }
+
+    @Override
+    public String modelName(CarType type, int modelIndex){
+        switch (type){
+            case SEDAN:
+                return "S" + modelIndex;
+            case SAV:
+                return "X" + modelIndex;
+            case LUXURY:
+                return "L" + modelIndex;
+            default:
+                throw new IllegalArgumentException("Unknown car type: " + type);
+        }
+    }
 }
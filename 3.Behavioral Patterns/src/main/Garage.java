@@ -1,51 +1,132 @@
 package main;
 
-import main.CarColorSchemes.DarkCarColorScheme;
-import main.CarColorSchemes.ICarColorScheme;
-import main.CarColorSchemes.LightCarColorScheme;
+import main.CarColorSchemes.ColorSchemes;
 import main.Cars.Car;
 import main.Cars.ICar;
 import main.Enums.CarType;
 import main.Enums.Color;
 import main.Enums.Manufacturer;
+import main.Events.DiscountEvent;
+import main.Events.Events;
 import main.Factories.CarFactory;
+import main.Indexes.GarageAggregates;
+import main.Indexes.GarageIndex;
+import main.Indexes.GaragePager;
+import main.Indexes.GarageQuery;
+import main.Indexes.PriceIndex;
+import main.Indexes.PriceQuery;
+import main.Snapshots.CarRecord;
+import main.Snapshots.PersistentVector;
+import main.Storage.CarStorage;
+import main.Storage.ListCarStorage;
+import main.Storage.StorageObserver;
 
-import java.text.NumberFormat;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
-public class Garage {
-    private List<ICar> cars = new ArrayList<>();
+public class Garage implements IGarage {
+    private final CarStorage storage;
+    private final GarageIndex index = new GarageIndex();
+    private final GarageAggregates aggregates;
+    private final PriceIndex priceIndex = new PriceIndex();
+    private boolean bulkUpdate;
+    // Mirrors the storage as immutable records, so save() only has to hand out the current version.
+    // Nodes created under the current edit token are updated in place until the next save().
+    private PersistentVector<CarRecord> records = PersistentVector.empty();
+    private Object edit = new Object();
+    private GarageHistory history;
+    // bumped on every change to the number or order of slots, iterators fail fast on it
+    private int modCount;
+    // false while cars the storage came with are not in the index, aggregates, price index and records yet
+    private boolean indexed;
 
+    public Garage(){
+        this(new ListCarStorage());
+    }
+
+    public Garage(CarStorage storage){
+        this.storage = storage;
+        this.aggregates = new GarageAggregates(this.priceIndex);
+        // cars already in the storage are indexed on first use, so a garage over a large snapshot opens right away
+        // and can be browsed, iterated and priced without it
+        this.indexed = storage.size() == 0;
+        this.storage.setObserver(new InventoryObserver());
+    }
 
     public void addCars(ICar... cars){
-        if (cars.length > 0) {
-            this.cars.addAll(Arrays.asList(cars));
+        ensureIndexed();
+        for (ICar car: cars){
+            this.storage.add(car);
+            track(this.storage.size() - 1);
         }
+        this.modCount++;
     }
 
-    public int getNetGaragePrice(){
-        int totalPrice = 0;
-        for (ICar car: this.cars)
-            totalPrice += car.getPrice();
+    // Swaps the last car into the removed car's place, so removal does not shift any slot
+    public boolean removeCar(ICar car){
+        ensureIndexed();
+        for (int slot = 0; slot < this.storage.size(); slot++){
+            if (this.storage.get(slot).equals(car)) {
+                int last = this.storage.size() - 1;
+                if (slot != last) {
+                    setRecord(slot, this.records.get(last));
+                }
+                removeLast();
+                return true;
+            }
+        }
+        return false;
+    }
 
-        return totalPrice;
+    public GarageQuery query(){
+        ensureIndexed();
+        return this.index.query(this.storage);
     }
 
-    public void showAllCars(){
-        for (ICar car: this.cars){
-            System.out.println(car + " - €" + NumberFormat.getIntegerInstance().format(car.getPrice()));
-        }
-        System.out.println("* This garages NET Price: €" + NumberFormat.getIntegerInstance().format(getNetGaragePrice()));
+    public PriceQuery prices(){
+        ensureIndexed();
+        return this.priceIndex.query(this.storage);
+    }
+
+    public GaragePager pager(GaragePager.Order order, int pageSize){
+        ensureIndexed();
+        return this.priceIndex.pager(this.index, this.storage, order, pageSize);
+    }
+
+    public long getNetGaragePrice(){
+        return this.indexed? this.aggregates.getTotalPrice(): this.storage.sumPrices();
+    }
+
+    public GarageAggregates getAggregates(){
+        ensureIndexed();
+        return this.aggregates;
+    }
+
+    public int getCarsCount(){
+        return this.storage.size();
+    }
+
+    public ICar getCar(int slot){
+        return this.storage.get(slot);
     }
 
     public static Garage FillWithCarsFacade(Manufacturer manufacturer, int carsNum){
-        Garage garage = new Garage();
+        return FillWithCarsFacade(manufacturer, carsNum, new ListCarStorage());
+    }
+
+    public static Garage FillWithCarsFacade(Manufacturer manufacturer, int carsNum, CarStorage storage){
+        return FillWithCarsFacade(manufacturer, carsNum, GenerationContext.getDefault(), storage);
+    }
+
+    public static Garage FillWithCarsFacade(Manufacturer manufacturer, int carsNum, GenerationContext context, CarStorage storage){
+        Garage garage = new Garage(storage);
+        SplittableRandom rnd = context.random();
+        int currentYear = context.currentYear();
 
         for (int i = 0; i < carsNum; i++){
-            Random rnd = new Random();
-            Car car = CarFactory.buildCar(manufacturer, CarType.values()[rnd.nextInt(3)]);
+            Car car = CarFactory.buildCar(manufacturer, CarType.values()[rnd.nextInt(3)], context);
 
-            int currentYear = Calendar.getInstance().get(Calendar.YEAR);
             int rndYear = rnd.nextInt(currentYear - 2001) + 2001;
             car.setYear(rndYear);
 
@@ -55,8 +136,7 @@ public class Garage {
             car.setPrice(basePrice + 3 * rndPrice - carAgePriceDrop);
 
             Color rndColor = Color.values()[rnd.nextInt(8)];
-            ICarColorScheme colorScheme = rnd.nextInt(2) == 0? new LightCarColorScheme(rndColor): new DarkCarColorScheme(rndColor);
-            car.setColorScheme(colorScheme);
+            car.setColorScheme(rnd.nextInt(2) == 0? ColorSchemes.light(rndColor): ColorSchemes.dark(rndColor));
 
             garage.addCars(car);
         }
@@ -64,39 +144,400 @@ public class Garage {
         return garage;
     }
 
+    public static Garage FillWithCarsFacade(Manufacturer manufacturer, int carsNum, long seed){
+        return FillWithCarsFacade(manufacturer, carsNum, seed, new ListCarStorage());
+    }
+
+    // Parallel variant: builds the cars on the common fork-join pool and is reproducible for a given seed
+    public static Garage FillWithCarsFacade(Manufacturer manufacturer, int carsNum, long seed, CarStorage storage){
+        Car[] cars = new Car[carsNum];
+        int currentYear = GenerationContext.getDefault().currentYear();
+        ForkJoinPool.commonPool().invoke(new GarageFillTask(cars, 0, carsNum, new SplittableRandom(seed), manufacturer, currentYear));
+        CarFactory.register(cars);
+
+        Garage garage = new Garage(storage);
+        garage.addCars(cars);
+        return garage;
+    }
+
     public void applyDiscount(float percentage) {
-        for(ICar car: this.cars){
-            car.setPrice((int)(car.getPrice() * (100 - percentage) / 100));
-        }
-        System.out.println("\nApplied a discount of " + percentage + "% for all cars in this garage!");
+        discount(percentage);
+        Events.publish(new DiscountEvent(percentage));
     }
 
-    public Iterator getIterator(){
+    public BulkUpdate bulk(){
+        return new BulkUpdate(this::applyBulk);
+    }
+
+    @Override
+    public Iterator<ICar> iterator(){
         return new CarIterator();
     }
 
+    @Override
+    public Spliterator<ICar> spliterator(){
+        return new CarSpliterator(0, -1, 0);
+    }
+
+    public GarageHistory enableHistory(long maxHistoryBytes){
+        this.history = new GarageHistory(this, maxHistoryBytes, save().getRecords());
+        return this.history;
+    }
+
+    public GarageHistory getHistory(){
+        return this.history;
+    }
+
     public GarageMemento save(){
-        return new GarageMemento(new ArrayList<>(this.cars));
+        ensureIndexed();
+        GarageMemento memento = new GarageMemento(this.records);
+        this.edit = new Object();
+        return memento;
     }
 
+    // Cars this garage no longer holds may be in use elsewhere, so they are rebuilt rather than changed back
     public void restore(GarageMemento memento){
-        this.cars = memento.getCars();
+        PersistentVector<CarRecord> saved = memento.getRecords();
+        Set<ICar> owned = ownedCars(saved);
+        this.modCount++;
+        this.storage.clear();
+        this.index.clear();
+        this.aggregates.clear();
+        this.priceIndex.clear();
+        this.records = saved;
+        this.edit = new Object();
+        for (int slot = 0; slot < saved.size(); slot++){
+            CarRecord record = saved.get(slot);
+            boolean rebuilt = record.getCar() != null && !owned.contains(record.getCar());
+            this.storage.add(rebuilt? record.detach(): record);
+            ICar car = this.storage.get(slot);
+            this.index.add(slot, car);
+            this.aggregates.add(car);
+            this.priceIndex.add(slot, car.getType(), car.getPrice());
+            if (rebuilt) {
+                this.records = this.records.set(slot, this.storage.record(slot), this.edit);
+            }
+        }
+        this.indexed = true;
+        if (this.history != null) {
+            this.history.reset(saved);
+        }
+    }
+
+    // The cars of the garage that the records point at, found without a pass over the storage when none do
+    private Set<ICar> ownedCars(PersistentVector<CarRecord> saved){
+        for (int slot = 0; slot < saved.size(); slot++){
+            if (saved.get(slot).getCar() != null) {
+                Set<ICar> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+                forEach(owned::add);
+                return owned;
+            }
+        }
+        return Collections.emptySet();
+    }
+
+    // Primitive edits below keep storage, index, aggregates and records in step.
+    // GarageHistory replays its journal through them.
+    // A removed car is never taken back, it may have joined another garage since.
+    void appendRecord(CarRecord record){
+        this.bulkUpdate = true;
+        try {
+            this.storage.add(record.detach());
+        } finally {
+            this.bulkUpdate = false;
+        }
+        track(this.storage.size() - 1);
+        this.modCount++;
+    }
+
+    void removeLast(){
+        int slot = this.storage.size() - 1;
+        CarRecord last = this.records.get(slot);
+        this.aggregates.remove(last.getManufacturer(), last.getType(), last.getPrice());
+        this.index.remove(slot);
+        this.priceIndex.remove(slot);
+        this.storage.removeLast();
+        this.modCount++;
+        this.records = this.records.pop(this.edit);
+        journal(new GarageHistory.CarRemoved(last));
+    }
+
+    void setRecord(int slot, CarRecord record){
+        CarRecord previous = this.records.get(slot);
+        this.aggregates.remove(previous.getManufacturer(), previous.getType(), previous.getPrice());
+        this.bulkUpdate = true;
+        try {
+            this.storage.set(slot, record);
+        } finally {
+            this.bulkUpdate = false;
+        }
+        ICar car = this.storage.get(slot);
+        this.aggregates.add(car);
+        this.index.update(slot, car);
+        this.priceIndex.update(slot, car.getType(), car.getPrice());
+        this.records = this.records.set(slot, this.storage.record(slot), this.edit);
+        journal(new GarageHistory.CarReplaced(slot, previous, this.records.get(slot)));
+    }
+
+    // setRecord for a journaled record, which only changes back the car already in the slot
+    void replaceRecord(int slot, CarRecord record){
+        setRecord(slot, record.getCar() == this.storage.get(slot)? record: record.detach());
+    }
+
+    void discount(float percentage){
+        ensureIndexed();
+        // every price moves, so one rebuild is cheaper than following each change
+        this.bulkUpdate = true;
+        try {
+            this.storage.applyDiscount(percentage);
+        } finally {
+            this.bulkUpdate = false;
+        }
+        refreshPrices();
+    }
+
+    BulkUpdateSummary applyBulk(List<BulkUpdate.Step> steps){
+        ensureIndexed();
+        BulkUpdateTask.Result result;
+        // workers must not touch the index or records, the changed slots are caught up below
+        this.bulkUpdate = true;
+        try {
+            result = new BulkUpdateTask(this.storage, this.records, steps, 0, this.storage.size()).invoke();
+        } finally {
+            this.bulkUpdate = false;
+        }
+        // cars whose price is all that changed are repriced together and journaled as one entry,
+        // any other change is caught up slot by slot
+        int changedCount = result.summary.getChangedCount();
+        int[] slots = new int[changedCount];
+        int[] oldPrices = new int[changedCount];
+        int[] newPrices = new int[changedCount];
+        int repriced = 0;
+        for (int i = 0; i < changedCount; i++){
+            int slot = result.changedSlots[i];
+            ICar car = this.storage.get(slot);
+            CarRecord previous = this.records.get(slot);
+            CarRecord current = previous.withPrice(car.getPrice());
+            if (current.matches(car)) {
+                this.aggregates.changePrice(car.getManufacturer(), car.getType(), previous.getPrice(), car.getPrice());
+                this.records = this.records.set(slot, current, this.edit);
+                slots[repriced] = slot;
+                oldPrices[repriced] = previous.getPrice();
+                newPrices[repriced] = car.getPrice();
+                repriced++;
+            } else {
+                catchUp(slot);
+            }
+        }
+        reprice(slots, newPrices, repriced);
+        if (repriced > 0) {
+            journal(new GarageHistory.PricesChanged(Arrays.copyOf(slots, repriced),
+                    Arrays.copyOf(oldPrices, repriced), Arrays.copyOf(newPrices, repriced)));
+        }
+        return result.summary;
+    }
+
+    void setPrice(int slot, int price){
+        this.storage.get(slot).setPrice(price);
     }
 
-    private class CarIterator implements Iterator {
+    private void ensureIndexed(){
+        if (!this.indexed) {
+            this.indexed = true;
+            for (int slot = 0; slot < this.storage.size(); slot++){
+                track(slot);
+            }
+        }
+    }
+
+    private void track(int slot){
+        ICar car = this.storage.get(slot);
+        this.index.add(slot, car);
+        this.aggregates.add(car);
+        this.priceIndex.add(slot, car.getType(), car.getPrice());
+        this.records = this.records.append(this.storage.record(slot), this.edit);
+        journal(new GarageHistory.CarAdded(this.records.get(slot)));
+    }
+
+    // Brings index, aggregates and records in line with whatever changed in the car of the slot
+    private void catchUp(int slot){
+        ICar car = this.storage.get(slot);
+        CarRecord previous = this.records.get(slot);
+        this.aggregates.remove(previous.getManufacturer(), previous.getType(), previous.getPrice());
+        this.aggregates.add(car);
+        this.index.update(slot, car);
+        this.priceIndex.update(slot, car.getType(), car.getPrice());
+        this.records = this.records.set(slot, this.storage.record(slot), this.edit);
+        journal(new GarageHistory.CarReplaced(slot, previous, this.records.get(slot)));
+    }
+
+    // Moves the first count slots to their new prices in the price index. Once a good share of the garage
+    // is repriced one rebuild beats moving every node, a few cars are cheaper to move one by one.
+    private void reprice(int[] slots, int[] prices, int count){
+        if (count * 8L < this.storage.size()) {
+            for (int i = 0; i < count; i++){
+                this.priceIndex.update(slots[i], this.index.typeOf(slots[i]), prices[i]);
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++){
+            this.priceIndex.reprice(slots[i], prices[i]);
+        }
+        this.priceIndex.reorder();
+    }
+
+    private void refreshPrices(){
+        boolean journaling = isJournaling();
+        int[] oldPrices = journaling? new int[this.storage.size()]: null;
+        int[] newPrices = journaling? new int[this.storage.size()]: null;
+
+        this.aggregates.clear();
+        for (int slot = 0; slot < this.storage.size(); slot++){
+            ICar car = this.storage.get(slot);
+            CarRecord record = this.records.get(slot);
+            this.aggregates.add(car);
+            this.priceIndex.reprice(slot, car.getPrice());
+            this.records = this.records.set(slot, record.withPrice(car.getPrice()), this.edit);
+            if (journaling) {
+                oldPrices[slot] = record.getPrice();
+                newPrices[slot] = car.getPrice();
+            }
+        }
+        this.priceIndex.reorder();
+
+        if (journaling) {
+            journal(new GarageHistory.PricesChanged(oldPrices, newPrices));
+        }
+    }
+
+    private boolean isJournaling(){
+        return this.history != null && !this.history.isReplaying();
+    }
+
+    private void journal(GarageHistory.Delta delta){
+        if (isJournaling()) {
+            this.history.record(delta);
+        }
+    }
+
+    private class InventoryObserver implements StorageObserver {
+        @Override
+        public void onCarChanged(int slot) {
+            // not indexed yet, indexing picks up whatever the car looks like by then
+            if (bulkUpdate || !indexed) {
+                return;
+            }
+            ICar car = storage.get(slot);
+            CarRecord previous = records.get(slot);
+            aggregates.move(index.manufacturerOf(slot), index.typeOf(slot), car.getManufacturer(), car.getType(), car.getPrice());
+            index.update(slot, car);
+            priceIndex.update(slot, car.getType(), car.getPrice());
+            records = records.set(slot, storage.record(slot), edit);
+            journal(new GarageHistory.CarReplaced(slot, previous, records.get(slot)));
+        }
+
+        @Override
+        public void onPriceChanged(int slot, int oldPrice, int newPrice) {
+            if (!bulkUpdate && indexed) {
+                ICar car = storage.get(slot);
+                aggregates.changePrice(car.getManufacturer(), car.getType(), oldPrice, newPrice);
+                priceIndex.update(slot, car.getType(), newPrice);
+                records = records.set(slot, records.get(slot).withPrice(newPrice), edit);
+                journal(new GarageHistory.PriceChanged(slot, oldPrice, newPrice));
+            }
+        }
+    }
+
+    private class CarIterator implements Iterator<ICar> {
         int index;
+        int expectedModCount = modCount;
 
         @Override
         public boolean hasNext() {
-            return index < cars.size();
+            return index < storage.size();
+        }
+
+        @Override
+        public ICar next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return storage.get(index++);
+        }
+    }
+
+    // Covers slots [index, fence); the fence and the expected mod count are bound together on first use,
+    // so a spliterator created before more cars are added still sees them
+    private class CarSpliterator implements Spliterator<ICar> {
+        private int index;
+        private int fence;
+        private int expectedModCount;
+
+        CarSpliterator(int origin, int fence, int expectedModCount){
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        private int getFence(){
+            if (this.fence < 0) {
+                this.expectedModCount = modCount;
+                this.fence = storage.size();
+            }
+            return this.fence;
         }
 
         @Override
-        public Object next() {
-            if(this.hasNext()){
-                return cars.get(index++);
+        public boolean tryAdvance(Consumer<? super ICar> action) {
+            int hi = getFence();
+            if (this.index >= hi) {
+                return false;
+            }
+            ICar car = storage.get(this.index++);
+            action.accept(car);
+            checkForComodification();
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super ICar> action) {
+            int hi = getFence();
+            for (int slot = this.index; slot < hi; slot++){
+                action.accept(storage.get(slot));
+            }
+            this.index = hi;
+            checkForComodification();
+        }
+
+        @Override
+        public Spliterator<ICar> trySplit() {
+            int hi = getFence();
+            int middle = (this.index + hi) >>> 1;
+            if (this.index >= middle) {
+                return null;
+            }
+            CarSpliterator prefix = new CarSpliterator(this.index, middle, this.expectedModCount);
+            this.index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return getFence() - this.index;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+
+        private void checkForComodification(){
+            if (modCount != this.expectedModCount) {
+                throw new ConcurrentModificationException();
             }
-            return null;
         }
     }
 }
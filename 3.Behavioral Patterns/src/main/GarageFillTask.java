@@ -0,0 +1,70 @@
+package main;
+
+import main.CarColorSchemes.ColorSchemes;
+import main.Cars.Car;
+import main.Enums.CarType;
+import main.Enums.Color;
+import main.Enums.Manufacturer;
+import main.Factories.CarFactory;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.RecursiveAction;
+
+// Fills cars[from, to) in place. Ranges are always split at the same points and every
+// split hands the right half its own SplittableRandom before forking, so the cars built
+// for a given seed are identical no matter how many workers the pool has.
+class GarageFillTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private static final int SEQUENTIAL_THRESHOLD = 2048;
+    private static final CarType[] CAR_TYPES = CarType.values();
+    private static final Color[] COLORS = Color.values();
+
+    private final Car[] cars;
+    private final int from;
+    private final int to;
+    private final SplittableRandom rnd;
+    private final Manufacturer manufacturer;
+    private final int currentYear;
+
+    GarageFillTask(Car[] cars, int from, int to, SplittableRandom rnd, Manufacturer manufacturer, int currentYear){
+        this.cars = cars;
+        this.from = from;
+        this.to = to;
+        this.rnd = rnd;
+        this.manufacturer = manufacturer;
+        this.currentYear = currentYear;
+    }
+
+    @Override
+    protected void compute() {
+        if (this.to - this.from <= SEQUENTIAL_THRESHOLD) {
+            for (int i = this.from; i < this.to; i++){
+                this.cars[i] = buildRandomCar();
+            }
+            return;
+        }
+
+        int middle = (this.from + this.to) >>> 1;
+        SplittableRandom rightRnd = this.rnd.split();
+        invokeAll(new GarageFillTask(this.cars, this.from, middle, this.rnd, this.manufacturer, this.currentYear),
+                new GarageFillTask(this.cars, middle, this.to, rightRnd, this.manufacturer, this.currentYear));
+    }
+
+    private Car buildRandomCar(){
+        CarType type = CAR_TYPES[this.rnd.nextInt(CAR_TYPES.length)];
+        int modelIndex = this.rnd.nextInt(99) * 100;
+        Car car = CarFactory.createCar(this.manufacturer, type, modelIndex, this.currentYear);
+
+        int rndYear = this.rnd.nextInt(this.currentYear - 2001) + 2001;
+        car.setYear(rndYear);
+
+        int basePrice = 21000;
+        int rndPrice = this.rnd.nextInt(27) * 1550;
+        int carAgePriceDrop = rndPrice / ((this.currentYear - rndYear) * 5400);
+        car.setPrice(basePrice + 3 * rndPrice - carAgePriceDrop);
+
+        Color rndColor = COLORS[this.rnd.nextInt(COLORS.length)];
+        car.setColorScheme(this.rnd.nextInt(2) == 0? ColorSchemes.light(rndColor): ColorSchemes.dark(rndColor));
+        return car;
+    }
+}
@@ -0,0 +1,356 @@
+package main;
+
+import main.Snapshots.CarRecord;
+import main.Snapshots.PersistentVector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Undo/redo journal for a Garage. Only the changes are recorded; checkpoints are positions in the journal.
+// When the journal grows past maxBytes the oldest checkpoints are folded into the base snapshot,
+// so memory depends on how much changed rather than on inventory size times checkpoint count.
+public class GarageHistory {
+    private final Garage garage;
+    private final long maxBytes;
+    private final List<Delta> journal = new ArrayList<>();
+    // ids and journal positions of every reachable checkpoint, the first one is the base snapshot
+    private final List<Integer> checkpointIds = new ArrayList<>();
+    private final List<Integer> checkpoints = new ArrayList<>();
+    private int nextCheckpointId;
+    private int position;
+    private long usedBytes;
+    private PersistentVector<CarRecord> base;
+    private Object edit = new Object();
+    private boolean replaying;
+
+    GarageHistory(Garage garage, long maxBytes, PersistentVector<CarRecord> base){
+        this.garage = garage;
+        this.maxBytes = maxBytes;
+        this.base = base;
+        addCheckpoint(0);
+    }
+
+    public int checkpoint(){
+        truncateRedo();
+        int last = this.checkpoints.size() - 1;
+        if (this.checkpoints.get(last) != this.position) {
+            addCheckpoint(this.position);
+            last++;
+        }
+        return this.checkpointIds.get(last);
+    }
+
+    public boolean undo(){
+        for (int i = this.checkpoints.size() - 1; i >= 0; i--){
+            if (this.checkpoints.get(i) < this.position) {
+                moveTo(this.checkpoints.get(i));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean redo(){
+        for (int i = 0; i < this.checkpoints.size(); i++){
+            if (this.checkpoints.get(i) > this.position) {
+                moveTo(this.checkpoints.get(i));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void rollTo(int checkpoint){
+        int i = Collections.binarySearch(this.checkpointIds, checkpoint);
+        if (i < 0) {
+            throw new IllegalArgumentException("Checkpoint " + checkpoint + " is not in the history");
+        }
+        moveTo(this.checkpoints.get(i));
+    }
+
+    public int getOldestCheckpoint(){
+        return this.checkpointIds.get(0);
+    }
+
+    public int getLatestCheckpoint(){
+        return this.checkpointIds.get(this.checkpointIds.size() - 1);
+    }
+
+    public long getUsedBytes(){
+        return this.usedBytes;
+    }
+
+    public long getMaxBytes(){
+        return this.maxBytes;
+    }
+
+    // State of the garage at the oldest checkpoint still reachable
+    public GarageMemento getBaseSnapshot(){
+        GarageMemento memento = new GarageMemento(this.base);
+        this.edit = new Object();
+        return memento;
+    }
+
+    boolean isReplaying(){
+        return this.replaying;
+    }
+
+    void record(Delta delta){
+        truncateRedo();
+        this.journal.add(delta);
+        this.position++;
+        this.usedBytes += delta.estimatedBytes();
+
+        while (this.usedBytes > this.maxBytes && this.position > 0){
+            if (this.checkpoints.size() == 1) {
+                addCheckpoint(this.position);
+            }
+            compactOldestCheckpoint();
+        }
+    }
+
+    // The garage was restored from a memento, so nothing in the journal applies anymore
+    void reset(PersistentVector<CarRecord> base){
+        this.journal.clear();
+        this.checkpointIds.clear();
+        this.checkpoints.clear();
+        addCheckpoint(0);
+        this.position = 0;
+        this.usedBytes = 0;
+        this.base = base;
+        this.edit = new Object();
+    }
+
+    private void addCheckpoint(int journalPosition){
+        this.checkpointIds.add(this.nextCheckpointId++);
+        this.checkpoints.add(journalPosition);
+    }
+
+    private void moveTo(int target){
+        this.replaying = true;
+        try {
+            while (this.position > target){
+                this.journal.get(--this.position).undo(this.garage);
+            }
+            while (this.position < target){
+                this.journal.get(this.position++).redo(this.garage);
+            }
+        } finally {
+            this.replaying = false;
+        }
+    }
+
+    private void truncateRedo(){
+        if (this.position == this.journal.size()) {
+            return;
+        }
+        List<Delta> redo = this.journal.subList(this.position, this.journal.size());
+        for (Delta delta: redo){
+            this.usedBytes -= delta.estimatedBytes();
+        }
+        redo.clear();
+        while (this.checkpoints.get(this.checkpoints.size() - 1) > this.position){
+            this.checkpointIds.remove(this.checkpointIds.size() - 1);
+            this.checkpoints.remove(this.checkpoints.size() - 1);
+        }
+    }
+
+    private void compactOldestCheckpoint(){
+        int end = this.checkpoints.get(1);
+        List<Delta> folded = this.journal.subList(0, end);
+        for (Delta delta: folded){
+            this.base = delta.applyTo(this.base, this.edit);
+            this.usedBytes -= delta.estimatedBytes();
+        }
+        folded.clear();
+
+        this.checkpointIds.remove(0);
+        this.checkpoints.remove(0);
+        for (int i = 0; i < this.checkpoints.size(); i++){
+            this.checkpoints.set(i, this.checkpoints.get(i) - end);
+        }
+        this.position -= end;
+    }
+
+    abstract static class Delta {
+        // object header plus references, close enough to keep the cap meaningful
+        static final int DELTA_BYTES = 32;
+        static final int RECORD_BYTES = 64;
+
+        abstract void undo(Garage garage);
+        abstract void redo(Garage garage);
+        abstract PersistentVector<CarRecord> applyTo(PersistentVector<CarRecord> records, Object edit);
+        abstract long estimatedBytes();
+    }
+
+    static class CarAdded extends Delta {
+        private final CarRecord record;
+
+        CarAdded(CarRecord record){
+            this.record = record;
+        }
+
+        @Override
+        void undo(Garage garage) {
+            garage.removeLast();
+        }
+
+        @Override
+        void redo(Garage garage) {
+            garage.appendRecord(this.record);
+        }
+
+        @Override
+        PersistentVector<CarRecord> applyTo(PersistentVector<CarRecord> records, Object edit) {
+            return records.append(this.record, edit);
+        }
+
+        @Override
+        long estimatedBytes() {
+            return DELTA_BYTES + RECORD_BYTES;
+        }
+    }
+
+    static class CarRemoved extends Delta {
+        private final CarRecord record;
+
+        CarRemoved(CarRecord record){
+            this.record = record;
+        }
+
+        @Override
+        void undo(Garage garage) {
+            garage.appendRecord(this.record);
+        }
+
+        @Override
+        void redo(Garage garage) {
+            garage.removeLast();
+        }
+
+        @Override
+        PersistentVector<CarRecord> applyTo(PersistentVector<CarRecord> records, Object edit) {
+            return records.pop(edit);
+        }
+
+        @Override
+        long estimatedBytes() {
+            return DELTA_BYTES + RECORD_BYTES;
+        }
+    }
+
+    static class CarReplaced extends Delta {
+        private final int slot;
+        private final CarRecord previous;
+        private final CarRecord current;
+
+        CarReplaced(int slot, CarRecord previous, CarRecord current){
+            this.slot = slot;
+            this.previous = previous;
+            this.current = current;
+        }
+
+        @Override
+        void undo(Garage garage) {
+            garage.replaceRecord(this.slot, this.previous);
+        }
+
+        @Override
+        void redo(Garage garage) {
+            garage.replaceRecord(this.slot, this.current);
+        }
+
+        @Override
+        PersistentVector<CarRecord> applyTo(PersistentVector<CarRecord> records, Object edit) {
+            return records.set(this.slot, this.current, edit);
+        }
+
+        @Override
+        long estimatedBytes() {
+            return DELTA_BYTES + 2 * RECORD_BYTES;
+        }
+    }
+
+    static class PriceChanged extends Delta {
+        private final int slot;
+        private final int oldPrice;
+        private final int newPrice;
+
+        PriceChanged(int slot, int oldPrice, int newPrice){
+            this.slot = slot;
+            this.oldPrice = oldPrice;
+            this.newPrice = newPrice;
+        }
+
+        @Override
+        void undo(Garage garage) {
+            garage.setPrice(this.slot, this.oldPrice);
+        }
+
+        @Override
+        void redo(Garage garage) {
+            garage.setPrice(this.slot, this.newPrice);
+        }
+
+        @Override
+        PersistentVector<CarRecord> applyTo(PersistentVector<CarRecord> records, Object edit) {
+            return records.set(this.slot, records.get(this.slot).withPrice(this.newPrice), edit);
+        }
+
+        @Override
+        long estimatedBytes() {
+            return DELTA_BYTES;
+        }
+    }
+
+    // One entry for a repricing of many cars, such as applyDiscount or a bulk update.
+    // Without slots the prices are those of every slot in order.
+    static class PricesChanged extends Delta {
+        private final int[] slots;
+        private final int[] oldPrices;
+        private final int[] newPrices;
+
+        PricesChanged(int[] oldPrices, int[] newPrices){
+            this(null, oldPrices, newPrices);
+        }
+
+        PricesChanged(int[] slots, int[] oldPrices, int[] newPrices){
+            this.slots = slots;
+            this.oldPrices = oldPrices;
+            this.newPrices = newPrices;
+        }
+
+        @Override
+        void undo(Garage garage) {
+            for (int i = 0; i < this.oldPrices.length; i++){
+                garage.setPrice(slot(i), this.oldPrices[i]);
+            }
+        }
+
+        @Override
+        void redo(Garage garage) {
+            for (int i = 0; i < this.newPrices.length; i++){
+                garage.setPrice(slot(i), this.newPrices[i]);
+            }
+        }
+
+        @Override
+        PersistentVector<CarRecord> applyTo(PersistentVector<CarRecord> records, Object edit) {
+            for (int i = 0; i < this.newPrices.length; i++){
+                int slot = slot(i);
+                records = records.set(slot, records.get(slot).withPrice(this.newPrices[i]), edit);
+            }
+            return records;
+        }
+
+        @Override
+        long estimatedBytes() {
+            return DELTA_BYTES + (this.slots == null? 8L: 12L) * this.oldPrices.length;
+        }
+
+        private int slot(int i){
+            return this.slots == null? i: this.slots[i];
+        }
+    }
+}
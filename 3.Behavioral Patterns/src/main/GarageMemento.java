@@ -1,17 +1,31 @@
 package main;
 
-import main.Cars.ICar;
-
-import java.util.List;
+import main.Snapshots.CarRecord;
+import main.Snapshots.GarageSnapshotFile;
+import main.Snapshots.PersistentVector;
 
 public class GarageMemento {
-    private List<ICar> cars;
+    private PersistentVector<CarRecord> records;
+    // set while the records are still only in a snapshot file
+    private GarageSnapshotFile file;
+
+    public GarageMemento(PersistentVector<CarRecord> records){
+        this.records = records;
+    }
+
+    public GarageMemento(GarageSnapshotFile file){
+        this.file = file;
+    }
 
-    public GarageMemento(List<ICar> cars){
-        this.cars = cars;
+    public PersistentVector<CarRecord> getRecords(){
+        if (this.records == null) {
+            this.records = this.file.readRecords();
+            this.file = null;
+        }
+        return this.records;
     }
 
-    public List<ICar> getCars(){
-        return this.cars;
+    public int getCarsCount(){
+        return this.records != null? this.records.size(): this.file.getCarsCount();
     }
 }
@@ -1,27 +1,208 @@
 package main;
 
+import main.Cars.ICar;
+import main.Events.DiscountEvent;
+import main.Events.Events;
+import main.Events.GarageDoorsEvent;
+import main.Indexes.GarageAggregates;
+import main.Indexes.GaragePager;
+import main.Indexes.GarageQuery;
+import main.Indexes.PriceQuery;
+import main.Snapshots.CarSegmentStore;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+// Protection proxy: changes to prices need the doors to be opened with the password first.
+// Built over a CarSegmentStore it is also a virtual proxy: the cars stay on disk and only a bounded
+// set of hot ones is kept as objects, so a garage larger than the heap can still be browsed and priced.
+// Indexed queries, history and snapshots are only available on a garage kept in memory.
 public class GarageProxy extends Garage {
     private boolean doorsOpen = false;
+    private final CarSegmentStore store;
+    private final CarCache cache;
+
+    public GarageProxy(){
+        this.store = null;
+        this.cache = null;
+    }
 
+    public GarageProxy(CarSegmentStore store, int cachedCars){
+        this.store = store;
+        this.cache = new CarCache(store, cachedCars);
+    }
+
+    @Override
+    public void addCars(ICar... cars){
+        if (this.store == null) {
+            super.addCars(cars);
+            return;
+        }
+        for (ICar car: cars){
+            this.store.append(car);
+        }
+    }
+
+    // Moves the last car into the removed car's slot, like Garage does.
+    // Only cars handed out by this garage can be removed.
+    @Override
+    public boolean removeCar(ICar car){
+        if (this.store == null) {
+            return super.removeCar(car);
+        }
+        if (!(car instanceof StoredCar) || !((StoredCar) car).isStoredIn(this.store) || ((StoredCar) car).getSlot() < 0) {
+            return false;
+        }
+        int slot = ((StoredCar) car).getSlot();
+        int last = this.store.size() - 1;
+        StoredCar handedOut = this.cache.remove(slot);
+        if (handedOut != null) {
+            handedOut.detach();
+        }
+        ((StoredCar) car).detach();
+        if (slot != last) {
+            this.store.copy(last, slot);
+            this.cache.move(last, slot);
+        }
+        this.store.removeLast();
+        return true;
+    }
+
+    @Override
+    public long getNetGaragePrice(){
+        return this.store == null? super.getNetGaragePrice(): this.store.getNetPrice();
+    }
+
+    @Override
+    public int getCarsCount(){
+        return this.store == null? super.getCarsCount(): this.store.size();
+    }
+
+    @Override
+    public ICar getCar(int slot){
+        return this.store == null? super.getCar(slot): this.cache.get(slot);
+    }
 
     @Override
     public void applyDiscount(float percentage){
         if (doorsOpen){
-            System.out.println("Applying discounts to your garage!");
-            super.applyDiscount(percentage);
+            Events.publish(GarageDoorsEvent.APPLYING_DISCOUNT);
+            if (this.store == null) {
+                super.applyDiscount(percentage);
+            } else {
+                this.store.applyDiscount(percentage);
+                this.cache.forEach(car -> car.discounted(this.store.getPrice(car.getSlot())));
+                Events.publish(new DiscountEvent(percentage));
+            }
         } else {
-            System.out.println("Doors to this garage are closed! You are not allowed to make any changes!");
+            Events.publish(GarageDoorsEvent.DISCOUNT_REFUSED);
+        }
+    }
+
+    public long getCacheHits(){
+        return this.cache == null? 0: this.cache.getHits();
+    }
+
+    public long getCacheMisses(){
+        return this.cache == null? 0: this.cache.getMisses();
+    }
+
+    public long getCacheEvictions(){
+        return this.cache == null? 0: this.cache.getEvictions();
+    }
+
+    @Override
+    public Iterator<ICar> getIterator(){
+        return iterator();
+    }
+
+    @Override
+    public Iterator<ICar> iterator(){
+        if (this.store == null) {
+            return super.iterator();
         }
+        return new Iterator<ICar>() {
+            private int slot;
+
+            @Override
+            public boolean hasNext() {
+                return this.slot < store.size();
+            }
+
+            @Override
+            public ICar next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return cache.get(this.slot++);
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<ICar> spliterator(){
+        return this.store == null? super.spliterator(): new StoredCarSpliterator();
+    }
+
+    @Override
+    public GarageQuery query(){
+        checkInMemory();
+        return super.query();
+    }
+
+    @Override
+    public PriceQuery prices(){
+        checkInMemory();
+        return super.prices();
+    }
+
+    @Override
+    public GaragePager pager(GaragePager.Order order, int pageSize){
+        checkInMemory();
+        return super.pager(order, pageSize);
+    }
+
+    @Override
+    public GarageAggregates getAggregates(){
+        checkInMemory();
+        return super.getAggregates();
+    }
+
+    @Override
+    public GarageHistory enableHistory(long maxHistoryBytes){
+        checkInMemory();
+        return super.enableHistory(maxHistoryBytes);
+    }
+
+    @Override
+    public GarageMemento save(){
+        checkInMemory();
+        return super.save();
+    }
+
+    @Override
+    public void restore(GarageMemento memento){
+        checkInMemory();
+        super.restore(memento);
+    }
+
+    @Override
+    BulkUpdateSummary applyBulk(List<BulkUpdate.Step> steps){
+        checkInMemory();
+        return super.applyBulk(steps);
     }
 
     public void openDoors(String password){
         if (isValidPassword(password) && !doorsOpen){
             doorsOpen = true;
-            System.out.println("Doors to your garage are now open! You can apply discounts...");
+            Events.publish(GarageDoorsEvent.OPENED);
         } else if (!isValidPassword(password) && !doorsOpen) {
-            System.out.println("No! You can not open doors to that garage!");
+            Events.publish(GarageDoorsEvent.WRONG_PASSWORD);
         } else {
-            System.out.println("Doors to your garage are already open.");
+            Events.publish(GarageDoorsEvent.ALREADY_OPEN);
         }
     }
 
@@ -32,7 +213,43 @@ public class GarageProxy extends Garage {
     public void closeDoors(){
         if (doorsOpen) {
             doorsOpen = false;
-            System.out.println("Doors are now closed!");
+            Events.publish(GarageDoorsEvent.CLOSED);
+        }
+    }
+
+    private void checkInMemory(){
+        if (this.store != null) {
+            throw new UnsupportedOperationException("Not supported by a garage kept in a segment store");
+        }
+    }
+
+    // Every car goes through the cache, which is not thread safe, so it never splits
+    private class StoredCarSpliterator implements Spliterator<ICar> {
+        private int slot;
+        private final int fence = store.size();
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ICar> action) {
+            if (this.slot >= this.fence) {
+                return false;
+            }
+            action.accept(cache.get(this.slot++));
+            return true;
+        }
+
+        @Override
+        public Spliterator<ICar> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.fence - this.slot;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL;
         }
     }
 }
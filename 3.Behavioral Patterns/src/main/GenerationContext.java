@@ -0,0 +1,78 @@
+package main;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.SplittableRandom;
+
+// Where factories, engines and garage fills get their randomness and the current year from.
+// Every thread draws from its own stream split off the seeded root, so nothing is shared on the hot path,
+// and a single threaded run with the same seed and year builds the same cars every time.
+// Parallel work should split() a stream per task instead, the way GarageFillTask does.
+// The current year is read once and only looked up again after the end of that year.
+public final class GenerationContext {
+    private static volatile GenerationContext defaultContext = new GenerationContext();
+
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(this::split);
+    private final boolean fixedYear;
+    private volatile int currentYear;
+    private volatile long nextYearMillis;
+
+    // Unseeded, following the system clock
+    public GenerationContext(){
+        this(new SplittableRandom(), 0, false);
+    }
+
+    // Seeded, following the system clock
+    public GenerationContext(long seed){
+        this(new SplittableRandom(seed), 0, false);
+    }
+
+    // Seeded and pinned to a year, fully reproducible
+    public GenerationContext(long seed, int currentYear){
+        this(new SplittableRandom(seed), currentYear, true);
+    }
+
+    private GenerationContext(SplittableRandom root, int currentYear, boolean fixedYear){
+        this.root = root;
+        this.fixedYear = fixedYear;
+        this.currentYear = currentYear;
+        this.nextYearMillis = fixedYear? Long.MAX_VALUE: 0;
+    }
+
+    public static GenerationContext getDefault(){
+        return defaultContext;
+    }
+
+    // Used by every factory that is not handed a context, e.g. to make a whole simulation reproducible
+    public static void setDefault(GenerationContext context){
+        defaultContext = context;
+    }
+
+    // The calling thread's stream, must not be handed to other threads
+    public SplittableRandom random(){
+        return this.random.get();
+    }
+
+    // A new independent stream
+    public synchronized SplittableRandom split(){
+        return this.root.split();
+    }
+
+    public int currentYear(){
+        if (System.currentTimeMillis() >= this.nextYearMillis) {
+            refreshYear();
+        }
+        return this.currentYear;
+    }
+
+    private synchronized void refreshYear(){
+        if (this.fixedYear || System.currentTimeMillis() < this.nextYearMillis) {
+            return;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate today = LocalDate.now(zone);
+        this.currentYear = today.getYear();
+        this.nextYearMillis = today.withDayOfYear(1).plusYears(1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+}
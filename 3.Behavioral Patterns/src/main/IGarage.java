@@ -0,0 +1,38 @@
+package main;
+
+import main.Cars.ICar;
+import main.Reports.InventoryReportWriter;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// What every garage offers, however it keeps its cars.
+// Indexed queries, pagination, aggregates and history need a single threaded Garage.
+public interface IGarage extends Iterable<ICar> {
+    void addCars(ICar... cars);
+    boolean removeCar(ICar car);
+    long getNetGaragePrice();
+    int getCarsCount();
+    ICar getCar(int slot);
+    void applyDiscount(float percentage);
+    BulkUpdate bulk();
+    GarageMemento save();
+    void restore(GarageMemento memento);
+
+    default void showAllCars(){
+        InventoryReportWriter.writeToConsole(this);
+    }
+
+    default Iterator<ICar> getIterator(){
+        return iterator();
+    }
+
+    default Stream<ICar> stream(){
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    default Stream<ICar> parallelStream(){
+        return StreamSupport.stream(spliterator(), true);
+    }
+}
@@ -0,0 +1,109 @@
+package main.Indexes;
+
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+
+import java.util.Arrays;
+
+// Running totals kept up to date on every change, so reading any of them is O(1).
+// Min and max come from the ends of the garage's PriceIndex, one walk down the edge of each type's tree.
+public class GarageAggregates {
+    private final PriceIndex priceIndex;
+    private long totalPrice;
+    private int carsCount;
+    private final long[] totalByManufacturer = new long[Manufacturer.values().length];
+    private final int[] countByManufacturer = new int[Manufacturer.values().length];
+    private final long[] totalByType = new long[CarType.values().length];
+    private final int[] countByType = new int[CarType.values().length];
+
+    // The price index of the same cars, kept up to date by the garage
+    public GarageAggregates(PriceIndex priceIndex){
+        this.priceIndex = priceIndex;
+    }
+
+    public void add(ICar car){
+        add(car.getManufacturer(), car.getType(), car.getPrice());
+    }
+
+    public void add(Manufacturer manufacturer, CarType type, int price){
+        this.totalPrice += price;
+        this.carsCount++;
+        this.totalByManufacturer[manufacturer.ordinal()] += price;
+        this.countByManufacturer[manufacturer.ordinal()]++;
+        this.totalByType[type.ordinal()] += price;
+        this.countByType[type.ordinal()]++;
+    }
+
+    public void remove(Manufacturer manufacturer, CarType type, int price){
+        this.totalPrice -= price;
+        this.carsCount--;
+        this.totalByManufacturer[manufacturer.ordinal()] -= price;
+        this.countByManufacturer[manufacturer.ordinal()]--;
+        this.totalByType[type.ordinal()] -= price;
+        this.countByType[type.ordinal()]--;
+    }
+
+    public void changePrice(Manufacturer manufacturer, CarType type, int oldPrice, int newPrice){
+        long difference = (long) newPrice - oldPrice;
+        this.totalPrice += difference;
+        this.totalByManufacturer[manufacturer.ordinal()] += difference;
+        this.totalByType[type.ordinal()] += difference;
+    }
+
+    public void move(Manufacturer oldManufacturer, CarType oldType, Manufacturer newManufacturer, CarType newType, int price){
+        if (oldManufacturer != newManufacturer) {
+            this.totalByManufacturer[oldManufacturer.ordinal()] -= price;
+            this.countByManufacturer[oldManufacturer.ordinal()]--;
+            this.totalByManufacturer[newManufacturer.ordinal()] += price;
+            this.countByManufacturer[newManufacturer.ordinal()]++;
+        }
+        if (oldType != newType) {
+            this.totalByType[oldType.ordinal()] -= price;
+            this.countByType[oldType.ordinal()]--;
+            this.totalByType[newType.ordinal()] += price;
+            this.countByType[newType.ordinal()]++;
+        }
+    }
+
+    public void clear(){
+        this.totalPrice = 0;
+        this.carsCount = 0;
+        Arrays.fill(this.totalByManufacturer, 0);
+        Arrays.fill(this.countByManufacturer, 0);
+        Arrays.fill(this.totalByType, 0);
+        Arrays.fill(this.countByType, 0);
+    }
+
+    public long getTotalPrice(){
+        return this.totalPrice;
+    }
+
+    public int getCarsCount(){
+        return this.carsCount;
+    }
+
+    public int getMinPrice(){
+        return this.priceIndex.minPrice();
+    }
+
+    public int getMaxPrice(){
+        return this.priceIndex.maxPrice();
+    }
+
+    public long getTotalPrice(Manufacturer manufacturer){
+        return this.totalByManufacturer[manufacturer.ordinal()];
+    }
+
+    public int getCarsCount(Manufacturer manufacturer){
+        return this.countByManufacturer[manufacturer.ordinal()];
+    }
+
+    public long getTotalPrice(CarType type){
+        return this.totalByType[type.ordinal()];
+    }
+
+    public int getCarsCount(CarType type){
+        return this.countByType[type.ordinal()];
+    }
+}
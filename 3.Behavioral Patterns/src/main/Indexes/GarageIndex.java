@@ -0,0 +1,103 @@
+package main.Indexes;
+
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Enums.Color;
+import main.Enums.InteriorColor;
+import main.Enums.Manufacturer;
+import main.Storage.CarStorage;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.Map;
+
+// One bitmap per enum constant, bit i set when the car in slot i has that value
+public class GarageIndex {
+    private final EnumMap<Manufacturer, BitSet> byManufacturer = createBitmaps(Manufacturer.class);
+    private final EnumMap<CarType, BitSet> byType = createBitmaps(CarType.class);
+    private final EnumMap<Color, BitSet> byColor = createBitmaps(Color.class);
+    private final EnumMap<InteriorColor, BitSet> byInteriorColor = createBitmaps(InteriorColor.class);
+
+    public void add(int slot, ICar car){
+        this.byManufacturer.get(car.getManufacturer()).set(slot);
+        this.byType.get(car.getType()).set(slot);
+        this.byColor.get(car.getColorScheme().getBodyColor()).set(slot);
+        this.byInteriorColor.get(car.getColorScheme().getInteriorColor()).set(slot);
+    }
+
+    public void update(int slot, ICar car){
+        remove(slot);
+        add(slot, car);
+    }
+
+    public void remove(int slot){
+        clearSlot(this.byManufacturer, slot);
+        clearSlot(this.byType, slot);
+        clearSlot(this.byColor, slot);
+        clearSlot(this.byInteriorColor, slot);
+    }
+
+    public void clear(){
+        clearAll(this.byManufacturer);
+        clearAll(this.byType);
+        clearAll(this.byColor);
+        clearAll(this.byInteriorColor);
+    }
+
+    public Manufacturer manufacturerOf(int slot){
+        return keyOf(this.byManufacturer, slot);
+    }
+
+    public CarType typeOf(int slot){
+        return keyOf(this.byType, slot);
+    }
+
+    public GarageQuery query(CarStorage storage){
+        return new GarageQuery(this, storage);
+    }
+
+    BitSet manufacturer(Manufacturer manufacturer){
+        return this.byManufacturer.get(manufacturer);
+    }
+
+    BitSet type(CarType type){
+        return this.byType.get(type);
+    }
+
+    BitSet color(Color color){
+        return this.byColor.get(color);
+    }
+
+    BitSet interiorColor(InteriorColor interiorColor){
+        return this.byInteriorColor.get(interiorColor);
+    }
+
+    private static <E extends Enum<E>> EnumMap<E, BitSet> createBitmaps(Class<E> keyType){
+        EnumMap<E, BitSet> bitmaps = new EnumMap<>(keyType);
+        for (E key: keyType.getEnumConstants()){
+            bitmaps.put(key, new BitSet());
+        }
+        return bitmaps;
+    }
+
+    private static <E extends Enum<E>> E keyOf(EnumMap<E, BitSet> bitmaps, int slot){
+        for (Map.Entry<E, BitSet> entry: bitmaps.entrySet()){
+            if (entry.getValue().get(slot)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    private static <E extends Enum<E>> void clearSlot(EnumMap<E, BitSet> bitmaps, int slot){
+        for (BitSet bitmap: bitmaps.values()){
+            bitmap.clear(slot);
+        }
+    }
+
+    private static <E extends Enum<E>> void clearAll(EnumMap<E, BitSet> bitmaps){
+        for (BitSet bitmap: bitmaps.values()){
+            bitmap.clear();
+        }
+    }
+}
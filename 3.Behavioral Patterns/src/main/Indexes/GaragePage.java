@@ -0,0 +1,28 @@
+package main.Indexes;
+
+import main.Cars.ICar;
+
+import java.util.List;
+
+public class GaragePage {
+    private final List<ICar> cars;
+    private final PageCursor nextCursor;
+
+    GaragePage(List<ICar> cars, PageCursor nextCursor){
+        this.cars = cars;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ICar> getCars(){
+        return this.cars;
+    }
+
+    public boolean hasNext(){
+        return this.nextCursor != null;
+    }
+
+    // null on the last page
+    public PageCursor getNextCursor(){
+        return this.nextCursor;
+    }
+}
@@ -0,0 +1,174 @@
+package main.Indexes;
+
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Storage.CarStorage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Keyset pagination: a page starts right after the key in its cursor, so page 5000 costs the same as page 1.
+// Insertion order walks the slots (through the type bitmaps when filtering by type), price orders walk
+// the PriceIndex from a single O(log n) lookup per car type.
+// A filter() predicate is checked car by car, cars it rejects add to the cost of the page they are skipped on.
+// A full page looks ahead for a later car of the types that passes the filter and only then hands out a next cursor,
+// placed right before that car, so browsing never ends on an empty page.
+// Not thread safe: it reads the Garage's unsynchronized index and storage, so pages must be fetched on the
+// thread that changes the garage. ConcurrentGarage and ShardedGarage do not offer a pager.
+public class GaragePager {
+    public enum Order {
+        INSERTION, PRICE_ASCENDING, PRICE_DESCENDING
+    }
+
+    private final GarageIndex index;
+    private final PriceIndex priceIndex;
+    private final CarStorage storage;
+    private final Order order;
+    private final int pageSize;
+    private final EnumSet<CarType> types = EnumSet.allOf(CarType.class);
+    private Predicate<? super ICar> filter = car -> true;
+
+    GaragePager(GarageIndex index, PriceIndex priceIndex, CarStorage storage, Order order, int pageSize){
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("A page needs room for at least one car, got " + pageSize);
+        }
+        this.index = index;
+        this.priceIndex = priceIndex;
+        this.storage = storage;
+        this.order = order;
+        this.pageSize = pageSize;
+    }
+
+    public GaragePager type(CarType... types){
+        EnumSet<CarType> any = EnumSet.noneOf(CarType.class);
+        for (CarType type: types){
+            any.add(type);
+        }
+        this.types.retainAll(any);
+        return this;
+    }
+
+    public GaragePager filter(Predicate<? super ICar> filter){
+        this.filter = filter;
+        return this;
+    }
+
+    public GaragePage first(){
+        switch (this.order) {
+            case PRICE_ASCENDING:
+                return page(new PageCursor(this.order, Long.MIN_VALUE, Integer.MIN_VALUE));
+            case PRICE_DESCENDING:
+                return page(new PageCursor(this.order, Long.MAX_VALUE, Integer.MAX_VALUE));
+            default:
+                return page(new PageCursor(this.order, 0, -1));
+        }
+    }
+
+    public GaragePage next(PageCursor cursor){
+        if (cursor.getOrder() != this.order) {
+            throw new IllegalArgumentException("Cursor " + cursor + " does not belong to " + this.order + " order");
+        }
+        return page(cursor);
+    }
+
+    private GaragePage page(PageCursor cursor){
+        return this.order == Order.INSERTION? insertionPage(cursor.getSlot()): pricePage(cursor);
+    }
+
+    private GaragePage insertionPage(int after){
+        List<ICar> cars = new ArrayList<>(this.pageSize);
+        boolean allTypes = this.types.size() == CarType.values().length;
+        BitSet[] bitmaps = new BitSet[this.types.size()];
+        int b = 0;
+        for (CarType type: this.types){
+            bitmaps[b++] = this.index.type(type);
+        }
+
+        int slot = after;
+        while (cars.size() < this.pageSize){
+            slot = allTypes? slot + 1: nextSlot(bitmaps, slot + 1);
+            if (slot < 0 || slot >= this.storage.size()) {
+                return new GaragePage(cars, null);
+            }
+            ICar car = this.storage.get(slot);
+            if (this.filter.test(car)) {
+                cars.add(car);
+            }
+        }
+        while (true){
+            int next = allTypes? slot + 1: nextSlot(bitmaps, slot + 1);
+            if (next < 0 || next >= this.storage.size()) {
+                return new GaragePage(cars, null);
+            }
+            if (this.filter.test(this.storage.get(next))) {
+                return new GaragePage(cars, new PageCursor(this.order, 0, slot));
+            }
+            slot = next;
+        }
+    }
+
+    private static int nextSlot(BitSet[] bitmaps, int from){
+        int next = -1;
+        for (BitSet bitmap: bitmaps){
+            int slot = bitmap.nextSetBit(from);
+            if (slot >= 0 && (next < 0 || slot < next)) {
+                next = slot;
+            }
+        }
+        return next;
+    }
+
+    private GaragePage pricePage(PageCursor cursor){
+        boolean ascending = this.order == Order.PRICE_ASCENDING;
+        List<ICar> cars = new ArrayList<>(this.pageSize);
+        int[] nodes = new int[this.types.size()];
+        int n = 0;
+        for (CarType type: this.types){
+            nodes[n++] = ascending?
+                    this.priceIndex.ceiling(type, cursor.getPrice(), cursor.getSlot() + 1):
+                    this.priceIndex.floor(type, cursor.getPrice(), cursor.getSlot() - 1);
+        }
+
+        int last = PriceIndex.NIL;
+        while (cars.size() < this.pageSize){
+            int best = pickNode(nodes, ascending);
+            if (best < 0) {
+                return new GaragePage(cars, null);
+            }
+            last = nodes[best];
+            nodes[best] = ascending? this.priceIndex.next(last): this.priceIndex.previous(last);
+            ICar car = this.storage.get(last);
+            if (this.filter.test(car)) {
+                cars.add(car);
+            }
+        }
+        while (true){
+            int best = pickNode(nodes, ascending);
+            if (best < 0) {
+                return new GaragePage(cars, null);
+            }
+            int next = nodes[best];
+            if (this.filter.test(this.storage.get(next))) {
+                return new GaragePage(cars, new PageCursor(this.order, this.priceIndex.price(last), last));
+            }
+            last = next;
+            nodes[best] = ascending? this.priceIndex.next(last): this.priceIndex.previous(last);
+        }
+    }
+
+    private int pickNode(int[] nodes, boolean ascending){
+        int best = -1;
+        for (int i = 0; i < nodes.length; i++){
+            if (nodes[i] == PriceIndex.NIL) {
+                continue;
+            }
+            if (best < 0 || (ascending? this.priceIndex.compare(nodes[i], nodes[best]) < 0: this.priceIndex.compare(nodes[i], nodes[best]) > 0)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,96 @@
+package main.Indexes;
+
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Enums.Color;
+import main.Enums.InteriorColor;
+import main.Enums.Manufacturer;
+import main.Storage.CarStorage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Values given to the same method are OR-ed, different methods are AND-ed together.
+// Only the cars whose bit survives the intersection are ever read from the storage.
+public class GarageQuery {
+    private final GarageIndex index;
+    private final CarStorage storage;
+    private BitSet matches;
+
+    GarageQuery(GarageIndex index, CarStorage storage){
+        this.index = index;
+        this.storage = storage;
+    }
+
+    public GarageQuery manufacturer(Manufacturer... manufacturers){
+        BitSet any = new BitSet();
+        for (Manufacturer manufacturer: manufacturers){
+            any.or(this.index.manufacturer(manufacturer));
+        }
+        return intersect(any);
+    }
+
+    public GarageQuery type(CarType... types){
+        BitSet any = new BitSet();
+        for (CarType type: types){
+            any.or(this.index.type(type));
+        }
+        return intersect(any);
+    }
+
+    public GarageQuery color(Color... colors){
+        BitSet any = new BitSet();
+        for (Color color: colors){
+            any.or(this.index.color(color));
+        }
+        return intersect(any);
+    }
+
+    public GarageQuery interiorColor(InteriorColor... interiorColors){
+        BitSet any = new BitSet();
+        for (InteriorColor interiorColor: interiorColors){
+            any.or(this.index.interiorColor(interiorColor));
+        }
+        return intersect(any);
+    }
+
+    public int count(){
+        return slots().cardinality();
+    }
+
+    public List<ICar> toList(){
+        BitSet slots = slots();
+        List<ICar> cars = new ArrayList<>(slots.cardinality());
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)){
+            cars.add(this.storage.get(slot));
+        }
+        return cars;
+    }
+
+    public void forEach(Consumer<ICar> action){
+        BitSet slots = slots();
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)){
+            action.accept(this.storage.get(slot));
+        }
+    }
+
+    private GarageQuery intersect(BitSet bitmap){
+        if (this.matches == null) {
+            this.matches = bitmap;
+        } else {
+            this.matches.and(bitmap);
+        }
+        return this;
+    }
+
+    private BitSet slots(){
+        if (this.matches != null) {
+            return this.matches;
+        }
+        BitSet all = new BitSet(this.storage.size());
+        all.set(0, this.storage.size());
+        return all;
+    }
+}
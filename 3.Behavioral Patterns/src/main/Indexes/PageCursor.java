@@ -0,0 +1,47 @@
+package main.Indexes;
+
+// Position after the last car a page looked at, as a key of the page order rather than a reference to the car.
+// Adding, removing cars or changing prices never invalidates it; cars that move across it meanwhile may be seen
+// twice or missed. removeCar moves the last car into the freed slot, so in INSERTION order a removal behind the
+// cursor makes the pages skip that last car.
+// toString() gives a token that parse() turns back into the same cursor.
+public final class PageCursor {
+    private final GaragePager.Order order;
+    private final long price;
+    private final int slot;
+
+    PageCursor(GaragePager.Order order, long price, int slot){
+        this.order = order;
+        this.price = price;
+        this.slot = slot;
+    }
+
+    public static PageCursor parse(String token){
+        String[] parts = token.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Not a page cursor: " + token);
+        }
+        try {
+            return new PageCursor(GaragePager.Order.valueOf(parts[0]), Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Not a page cursor: " + token, e);
+        }
+    }
+
+    GaragePager.Order getOrder(){
+        return this.order;
+    }
+
+    long getPrice(){
+        return this.price;
+    }
+
+    int getSlot(){
+        return this.slot;
+    }
+
+    @Override
+    public String toString(){
+        return this.order + ":" + this.price + ":" + this.slot;
+    }
+}
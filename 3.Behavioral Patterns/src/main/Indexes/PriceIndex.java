@@ -0,0 +1,346 @@
+package main.Indexes;
+
+import main.Enums.CarType;
+import main.Storage.CarStorage;
+
+import java.util.Arrays;
+
+// One treap per car type ordered by price and then slot, kept in primitive arrays where the node of a car is its slot.
+// Every node knows the size of its subtree, so counting the cars below a price walks a single path,
+// and the parent links let a range be walked from any node in price order.
+// Node priorities are a hash of the slot, which keeps the trees balanced whatever the prices are.
+public class PriceIndex {
+    static final int NIL = -1;
+    private static final CarType[] CAR_TYPES = CarType.values();
+
+    private int[] prices = new int[16];
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] parents = new int[16];
+    private int[] sizes = new int[16];
+    private byte[] types = new byte[16];
+    private final int[] roots = new int[CAR_TYPES.length];
+
+    public PriceIndex(){
+        Arrays.fill(this.roots, NIL);
+    }
+
+    public void add(int slot, CarType type, int price){
+        ensureCapacity(slot + 1);
+        this.prices[slot] = price;
+        this.types[slot] = (byte) type.ordinal();
+        this.left[slot] = NIL;
+        this.right[slot] = NIL;
+        this.sizes[slot] = 1;
+
+        int root = this.roots[type.ordinal()];
+        if (root == NIL) {
+            this.parents[slot] = NIL;
+            this.roots[type.ordinal()] = slot;
+            return;
+        }
+        int node = root;
+        while (true){
+            this.sizes[node]++;
+            if (compare(price, slot, node) < 0) {
+                if (this.left[node] == NIL) {
+                    this.left[node] = slot;
+                    break;
+                }
+                node = this.left[node];
+            } else {
+                if (this.right[node] == NIL) {
+                    this.right[node] = slot;
+                    break;
+                }
+                node = this.right[node];
+            }
+        }
+        this.parents[slot] = node;
+        while (this.parents[slot] != NIL && priority(slot) > priority(this.parents[slot])){
+            rotateUp(slot);
+        }
+    }
+
+    public void remove(int slot){
+        if (slot >= this.sizes.length || this.sizes[slot] == 0) {
+            return;
+        }
+        // rotate the node down until it is a leaf, then cut it off
+        while (this.left[slot] != NIL || this.right[slot] != NIL){
+            int child;
+            if (this.left[slot] == NIL) {
+                child = this.right[slot];
+            } else if (this.right[slot] == NIL) {
+                child = this.left[slot];
+            } else {
+                child = priority(this.left[slot]) > priority(this.right[slot])? this.left[slot]: this.right[slot];
+            }
+            rotateUp(child);
+        }
+        int parent = this.parents[slot];
+        if (parent == NIL) {
+            this.roots[this.types[slot]] = NIL;
+        } else if (this.left[parent] == slot) {
+            this.left[parent] = NIL;
+        } else {
+            this.right[parent] = NIL;
+        }
+        for (int node = parent; node != NIL; node = this.parents[node]){
+            this.sizes[node]--;
+        }
+        this.sizes[slot] = 0;
+    }
+
+    public void update(int slot, CarType type, int price){
+        remove(slot);
+        add(slot, type, price);
+    }
+
+    // Changes the price without moving the node, reorder() has to follow before the next query
+    public void reprice(int slot, int price){
+        this.prices[slot] = price;
+    }
+
+    // Rebuilds every tree from the sorted nodes in O(n) once they are sorted,
+    // which beats moving each node when most of the prices changed
+    public void reorder(){
+        for (int type = 0; type < this.roots.length; type++){
+            int count = this.roots[type] == NIL? 0: this.sizes[this.roots[type]];
+            long[] keys = new long[count];
+            int i = 0;
+            for (int slot = 0; slot < this.sizes.length && i < count; slot++){
+                if (this.sizes[slot] != 0 && this.types[slot] == type) {
+                    keys[i++] = (long) this.prices[slot] << 32 | slot;
+                }
+            }
+            Arrays.sort(keys);
+            this.roots[type] = build(keys);
+        }
+    }
+
+    public void clear(){
+        Arrays.fill(this.sizes, 0);
+        Arrays.fill(this.roots, NIL);
+    }
+
+    // Lowest price of any type, 0 when there are no cars
+    public int minPrice(){
+        int min = NIL;
+        for (int root: this.roots){
+            if (root == NIL) {
+                continue;
+            }
+            int node = root;
+            while (this.left[node] != NIL){
+                node = this.left[node];
+            }
+            if (min == NIL || this.prices[node] < this.prices[min]) {
+                min = node;
+            }
+        }
+        return min == NIL? 0: this.prices[min];
+    }
+
+    // Highest price of any type, 0 when there are no cars
+    public int maxPrice(){
+        int max = NIL;
+        for (int root: this.roots){
+            if (root == NIL) {
+                continue;
+            }
+            int node = root;
+            while (this.right[node] != NIL){
+                node = this.right[node];
+            }
+            if (max == NIL || this.prices[node] > this.prices[max]) {
+                max = node;
+            }
+        }
+        return max == NIL? 0: this.prices[max];
+    }
+
+    public PriceQuery query(CarStorage storage){
+        return new PriceQuery(this, storage);
+    }
+
+    public GaragePager pager(GarageIndex index, CarStorage storage, GaragePager.Order order, int pageSize){
+        return new GaragePager(index, this, storage, order, pageSize);
+    }
+
+    int price(int node){
+        return this.prices[node];
+    }
+
+    // Number of cars of the type cheaper than the price
+    int countBelow(CarType type, long price){
+        int count = 0;
+        int node = this.roots[type.ordinal()];
+        while (node != NIL){
+            if (this.prices[node] < price) {
+                count += size(this.left[node]) + 1;
+                node = this.right[node];
+            } else {
+                node = this.left[node];
+            }
+        }
+        return count;
+    }
+
+    // First car of the type at or after (price, slot)
+    int ceiling(CarType type, long price, int slot){
+        int found = NIL;
+        int node = this.roots[type.ordinal()];
+        while (node != NIL){
+            if (compare(price, slot, node) <= 0) {
+                found = node;
+                node = this.left[node];
+            } else {
+                node = this.right[node];
+            }
+        }
+        return found;
+    }
+
+    // Last car of the type at or before (price, slot)
+    int floor(CarType type, long price, int slot){
+        int found = NIL;
+        int node = this.roots[type.ordinal()];
+        while (node != NIL){
+            if (compare(price, slot, node) >= 0) {
+                found = node;
+                node = this.right[node];
+            } else {
+                node = this.left[node];
+            }
+        }
+        return found;
+    }
+
+    int next(int node){
+        if (this.right[node] != NIL) {
+            node = this.right[node];
+            while (this.left[node] != NIL){
+                node = this.left[node];
+            }
+            return node;
+        }
+        int parent = this.parents[node];
+        while (parent != NIL && this.right[parent] == node){
+            node = parent;
+            parent = this.parents[node];
+        }
+        return parent;
+    }
+
+    int previous(int node){
+        if (this.left[node] != NIL) {
+            node = this.left[node];
+            while (this.right[node] != NIL){
+                node = this.right[node];
+            }
+            return node;
+        }
+        int parent = this.parents[node];
+        while (parent != NIL && this.left[parent] == node){
+            node = parent;
+            parent = this.parents[node];
+        }
+        return parent;
+    }
+
+    // Orders two nodes by price and then slot
+    int compare(int node, int other){
+        return compare(this.prices[node], node, other);
+    }
+
+    private int compare(long price, int slot, int node){
+        int byPrice = Long.compare(price, this.prices[node]);
+        return byPrice != 0? byPrice: Integer.compare(slot, node);
+    }
+
+    // Cartesian tree over nodes sorted by key, a node's subtree is complete once it leaves the stack
+    private int build(long[] keys){
+        int[] stack = new int[keys.length];
+        int top = 0;
+        for (long key: keys){
+            int node = (int) key;
+            int last = NIL;
+            while (top > 0 && priority(stack[top - 1]) < priority(node)){
+                last = stack[--top];
+                this.sizes[last] = size(this.left[last]) + size(this.right[last]) + 1;
+            }
+            this.left[node] = last;
+            this.right[node] = NIL;
+            if (last != NIL) {
+                this.parents[last] = node;
+            }
+            if (top > 0) {
+                this.right[stack[top - 1]] = node;
+                this.parents[node] = stack[top - 1];
+            } else {
+                this.parents[node] = NIL;
+            }
+            stack[top++] = node;
+        }
+        while (top > 0){
+            int node = stack[--top];
+            this.sizes[node] = size(this.left[node]) + size(this.right[node]) + 1;
+        }
+        return keys.length == 0? NIL: stack[0];
+    }
+
+    private void rotateUp(int node){
+        int parent = this.parents[node];
+        int grandparent = this.parents[parent];
+        if (this.left[parent] == node) {
+            int moved = this.right[node];
+            this.left[parent] = moved;
+            if (moved != NIL) {
+                this.parents[moved] = parent;
+            }
+            this.right[node] = parent;
+        } else {
+            int moved = this.left[node];
+            this.right[parent] = moved;
+            if (moved != NIL) {
+                this.parents[moved] = parent;
+            }
+            this.left[node] = parent;
+        }
+        this.parents[parent] = node;
+        this.parents[node] = grandparent;
+        if (grandparent == NIL) {
+            this.roots[this.types[node]] = node;
+        } else if (this.left[grandparent] == parent) {
+            this.left[grandparent] = node;
+        } else {
+            this.right[grandparent] = node;
+        }
+        this.sizes[parent] = size(this.left[parent]) + size(this.right[parent]) + 1;
+        this.sizes[node] = size(this.left[node]) + size(this.right[node]) + 1;
+    }
+
+    private int size(int node){
+        return node == NIL? 0: this.sizes[node];
+    }
+
+    private static int priority(int slot){
+        int hash = slot * 0x9E3779B9;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+
+    private void ensureCapacity(int capacity){
+        if (capacity > this.prices.length) {
+            int grown = Math.max(capacity, this.prices.length + (this.prices.length >> 1));
+            this.prices = Arrays.copyOf(this.prices, grown);
+            this.left = Arrays.copyOf(this.left, grown);
+            this.right = Arrays.copyOf(this.right, grown);
+            this.parents = Arrays.copyOf(this.parents, grown);
+            this.sizes = Arrays.copyOf(this.sizes, grown);
+            this.types = Arrays.copyOf(this.types, grown);
+        }
+    }
+}
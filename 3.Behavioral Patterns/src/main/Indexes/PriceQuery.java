@@ -0,0 +1,128 @@
+package main.Indexes;
+
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Storage.CarStorage;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Price range and top-N queries answered from the PriceIndex.
+// Counting costs O(log n) per car type, listing adds O(1) amortized per car returned.
+// Cars of several types come out merged in price order.
+public class PriceQuery {
+    private final PriceIndex index;
+    private final CarStorage storage;
+    private final EnumSet<CarType> types = EnumSet.allOf(CarType.class);
+    private long minPrice = Long.MIN_VALUE;
+    private long maxPrice = Long.MAX_VALUE;
+
+    PriceQuery(PriceIndex index, CarStorage storage){
+        this.index = index;
+        this.storage = storage;
+    }
+
+    public PriceQuery type(CarType... types){
+        EnumSet<CarType> any = EnumSet.noneOf(CarType.class);
+        for (CarType type: types){
+            any.add(type);
+        }
+        this.types.retainAll(any);
+        return this;
+    }
+
+    // Both bounds are inclusive
+    public PriceQuery between(long minPrice, long maxPrice){
+        this.minPrice = Math.max(this.minPrice, minPrice);
+        this.maxPrice = Math.min(this.maxPrice, maxPrice);
+        return this;
+    }
+
+    public int count(){
+        if (this.minPrice > this.maxPrice) {
+            return 0;
+        }
+        int count = 0;
+        for (CarType type: this.types){
+            count += countUpTo(type) - this.index.countBelow(type, this.minPrice);
+        }
+        return count;
+    }
+
+    public List<ICar> cheapest(int limit){
+        List<ICar> cars = new ArrayList<>(Math.min(limit, 1024));
+        ascending(limit, cars::add);
+        return cars;
+    }
+
+    public List<ICar> mostExpensive(int limit){
+        List<ICar> cars = new ArrayList<>(Math.min(limit, 1024));
+        descending(limit, cars::add);
+        return cars;
+    }
+
+    public List<ICar> toList(){
+        List<ICar> cars = new ArrayList<>(count());
+        ascending(Integer.MAX_VALUE, cars::add);
+        return cars;
+    }
+
+    public void forEach(Consumer<ICar> action){
+        ascending(Integer.MAX_VALUE, action);
+    }
+
+    private int countUpTo(CarType type){
+        // prices are ints, so a long bound past the last one never overflows
+        return this.index.countBelow(type, this.maxPrice == Long.MAX_VALUE? Long.MAX_VALUE: this.maxPrice + 1);
+    }
+
+    private void ascending(int limit, Consumer<ICar> action){
+        if (this.minPrice > this.maxPrice) {
+            return;
+        }
+        int[] cursors = new int[this.types.size()];
+        int i = 0;
+        for (CarType type: this.types){
+            cursors[i++] = this.index.ceiling(type, this.minPrice, Integer.MIN_VALUE);
+        }
+        for (int taken = 0; taken < limit; taken++){
+            int cheapest = -1;
+            for (int c = 0; c < cursors.length; c++){
+                if (cursors[c] != PriceIndex.NIL && (cheapest < 0 || this.index.compare(cursors[c], cursors[cheapest]) < 0)) {
+                    cheapest = c;
+                }
+            }
+            if (cheapest < 0 || this.index.price(cursors[cheapest]) > this.maxPrice) {
+                return;
+            }
+            action.accept(this.storage.get(cursors[cheapest]));
+            cursors[cheapest] = this.index.next(cursors[cheapest]);
+        }
+    }
+
+    private void descending(int limit, Consumer<ICar> action){
+        if (this.minPrice > this.maxPrice) {
+            return;
+        }
+        int[] cursors = new int[this.types.size()];
+        int i = 0;
+        for (CarType type: this.types){
+            cursors[i++] = this.index.floor(type, this.maxPrice, Integer.MAX_VALUE);
+        }
+        for (int taken = 0; taken < limit; taken++){
+            int dearest = -1;
+            for (int c = 0; c < cursors.length; c++){
+                if (cursors[c] != PriceIndex.NIL && (dearest < 0 || this.index.compare(cursors[c], cursors[dearest]) > 0)) {
+                    dearest = c;
+                }
+            }
+            if (dearest < 0 || this.index.price(cursors[dearest]) < this.minPrice) {
+                return;
+            }
+            action.accept(this.storage.get(cursors[dearest]));
+            cursors[dearest] = this.index.previous(cursors[dearest]);
+        }
+    }
+}
@@ -4,26 +4,38 @@ import main.Accounts.Account;
 import main.Accounts.Bank;
 import main.Accounts.Bitcoin;
 import main.Accounts.Paypal;
-import main.CarColorSchemes.DarkCarColorScheme;
+import main.CarColorSchemes.ColorSchemes;
 import main.CarColorSchemes.ICarColorScheme;
-import main.CarColorSchemes.LightCarColorScheme;
 import main.Cars.Car;
 import main.Cars.ICar;
 import main.CashbackService.HighCashback;
 import main.CashbackService.LowCashback;
 import main.Enums.*;
+import main.Events.EventSink;
+import main.Events.Events;
 import main.Factories.CarFactory;
 import main.Factories.TransmissionFactory;
+import main.Indexes.GaragePage;
+import main.Indexes.GaragePager;
+import main.Snapshots.PersistentVector;
+import main.Storage.ColumnarCarStorage;
+import main.Storage.ListCarStorage;
 import main.Transmissions.Transmission;
 
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
 
 public class Main {
     public static void main(String[] args){
         //testCreationalPatterns();
         //testStructuralPatterns();
         testBehavioralPatterns();
+        testDataStructures();
     }
 
     private static void testBehavioralPatterns() {
@@ -132,8 +144,8 @@ public class Main {
 
     private static void testBridge(){
         System.out.println("\n- - -  Bridge  - - -");
-        ICarColorScheme lightColorScheme = new LightCarColorScheme(Color.RED);
-        ICarColorScheme darkColorScheme = new DarkCarColorScheme(Color.GREEN);
+        ICarColorScheme lightColorScheme = ColorSchemes.light(Color.RED);
+        ICarColorScheme darkColorScheme = ColorSchemes.dark(Color.GREEN);
 
         Car car = CarFactory.buildCar(Manufacturer.MERCEDES, CarType.LUXURY);
         car.setColorScheme(lightColorScheme);
@@ -283,4 +295,186 @@ public class Main {
             counter++;
         }
     }
+
+    // Random changes checked against a brute force answer, construction and discount messages are muted meanwhile
+    private static void testDataStructures(){
+        EventSink sink = Events.getSink();
+        Events.setSink(Events.NONE);
+        try {
+            testPriceIndex();
+            testShardedGarage();
+            testPersistentVector();
+            testHistory();
+        } finally {
+            Events.setSink(sink);
+        }
+    }
+
+    private static void testPriceIndex(){
+        System.out.println("\n- - -  Price Index  - - -");
+        Garage garage = Garage.FillWithCarsFacade(Manufacturer.BMW, 1000, new GenerationContext(42, 2020), new ListCarStorage());
+        SplittableRandom rnd = new SplittableRandom(7);
+        boolean matches = true;
+        for (int round = 0; round < 300; round++){
+            ICar car = garage.getCar(rnd.nextInt(garage.getCarsCount()));
+            switch (rnd.nextInt(5)){
+                case 0:
+                    Car added = CarFactory.buildCar(Manufacturer.AUDI, CarType.values()[rnd.nextInt(3)]);
+                    added.setPrice(rnd.nextInt(100) * 1000);
+                    garage.addCars(added);
+                    break;
+                case 1:
+                    garage.removeCar(car);
+                    break;
+                case 2:
+                    car.setPrice(rnd.nextInt(100) * 1000);
+                    break;
+                case 3:
+                    car.setType(CarType.values()[rnd.nextInt(3)]);
+                    break;
+                default:
+                    garage.applyDiscount(rnd.nextInt(20));
+            }
+            matches &= matchesSort(garage);
+        }
+        System.out.println("Price queries and pages match a sort after 300 changes: " + matches);
+    }
+
+    private static boolean matchesSort(Garage garage){
+        List<Integer> sorted = garage.stream().map(ICar::getPrice).sorted().collect(Collectors.toList());
+        List<Integer> cheapest = garage.prices().cheapest(garage.getCarsCount()).stream().map(ICar::getPrice).collect(Collectors.toList());
+
+        List<Integer> paged = new ArrayList<>();
+        GaragePager pager = garage.pager(GaragePager.Order.PRICE_ASCENDING, 64);
+        GaragePage page = pager.first();
+        page.getCars().forEach(car -> paged.add(car.getPrice()));
+        while (page.hasNext()){
+            page = pager.next(page.getNextCursor());
+            page.getCars().forEach(car -> paged.add(car.getPrice()));
+        }
+
+        long between = sorted.stream().filter(price -> price >= 30000 && price <= 60000).count();
+        long sedans = garage.stream().filter(car -> car.getType() == CarType.SEDAN).count();
+        return sorted.equals(cheapest) && sorted.equals(paged)
+                && garage.prices().between(30000, 60000).count() == between
+                && garage.prices().type(CarType.SEDAN).count() == sedans
+                && garage.prices().mostExpensive(1).get(0).getPrice() == sorted.get(sorted.size() - 1);
+    }
+
+    private static void testShardedGarage(){
+        System.out.println("\n- - -  Sharded Garage  - - -");
+        ShardedGarage garage = new ShardedGarage(4, ShardedGarage.Partitioning.HASH, ColumnarCarStorage::new);
+        garage.addCars(Garage.FillWithCarsFacade(Manufacturer.BMW, 4000, new GenerationContext(9, 2020), new ListCarStorage())
+                .stream().toArray(ICar[]::new));
+        int[] before = shardCounts(garage);
+        garage.restore(garage.save());
+        int[] after = shardCounts(garage);
+        System.out.println("Cars per shard " + Arrays.toString(before) + " after a save and restore: " + Arrays.toString(after)
+                + ", unchanged: " + Arrays.equals(before, after));
+    }
+
+    private static int[] shardCounts(ShardedGarage garage){
+        int[] counts = new int[garage.getShardsCount()];
+        for (int shard = 0; shard < counts.length; shard++){
+            counts[shard] = garage.getShard(shard).getCarsCount();
+        }
+        return counts;
+    }
+
+    private static void testPersistentVector(){
+        System.out.println("\n- - -  Persistent Vector  - - -");
+        SplittableRandom rnd = new SplittableRandom(11);
+        List<PersistentVector<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        List<Integer> values = new ArrayList<>();
+        Object edit = new Object();
+
+        for (int round = 0; round < 20000; round++){
+            int operation = rnd.nextInt(10);
+            if (operation < 4 || values.isEmpty()) {
+                int value = rnd.nextInt();
+                vector = vector.append(value, edit);
+                values.add(value);
+            } else if (operation < 7) {
+                int index = rnd.nextInt(values.size());
+                int value = rnd.nextInt();
+                vector = vector.set(index, value, edit);
+                values.set(index, value);
+            } else {
+                vector = vector.pop(edit);
+                values.remove(values.size() - 1);
+            }
+            // a version handed out must not change anymore, so the edit token changes with it
+            if (round % 500 == 0) {
+                versions.add(vector);
+                expected.add(new ArrayList<>(values));
+                edit = new Object();
+            }
+        }
+        versions.add(vector);
+        expected.add(values);
+
+        boolean matches = true;
+        for (int version = 0; version < versions.size(); version++){
+            matches &= contents(versions.get(version)).equals(expected.get(version));
+        }
+        System.out.println(versions.size() + " versions up to " + vector.size() + " values match their lists: " + matches);
+    }
+
+    private static List<Integer> contents(PersistentVector<Integer> vector){
+        List<Integer> values = new ArrayList<>(vector.size());
+        for (int index = 0; index < vector.size(); index++){
+            values.add(vector.get(index));
+        }
+        return values;
+    }
+
+    private static void testHistory(){
+        System.out.println("\n- - -  History  - - -");
+        Garage garage = Garage.FillWithCarsFacade(Manufacturer.AUDI, 500, new GenerationContext(3, 2020), new ListCarStorage());
+        GarageHistory history = garage.enableHistory(1 << 20);
+        SplittableRandom rnd = new SplittableRandom(5);
+        List<List<String>> states = new ArrayList<>();
+        states.add(describe(garage));
+
+        for (int checkpoint = 0; checkpoint < 20; checkpoint++){
+            for (int change = 0; change < 10; change++){
+                ICar car = garage.getCar(rnd.nextInt(garage.getCarsCount()));
+                switch (rnd.nextInt(5)){
+                    case 0:
+                        garage.addCars(CarFactory.buildCar(Manufacturer.MERCEDES, CarType.SAV));
+                        break;
+                    case 1:
+                        garage.removeCar(car);
+                        break;
+                    case 2:
+                        car.setPrice(rnd.nextInt(100) * 1000);
+                        break;
+                    case 3:
+                        garage.bulk().discount(5).recolor(Manufacturer.AUDI, ColorSchemes.light(Color.RED)).apply();
+                        break;
+                    default:
+                        garage.applyDiscount(10);
+                }
+            }
+            history.checkpoint();
+            states.add(describe(garage));
+        }
+
+        boolean matches = true;
+        for (int state = states.size() - 2; state >= 0; state--){
+            matches &= history.undo() && describe(garage).equals(states.get(state));
+        }
+        for (int state = 1; state < states.size(); state++){
+            matches &= history.redo() && describe(garage).equals(states.get(state));
+        }
+        System.out.println("Undo and redo through " + (states.size() - 1) + " checkpoints match the recorded states: " + matches);
+    }
+
+    private static List<String> describe(Garage garage){
+        return garage.stream()
+                .map(car -> car + " " + car.getColorScheme().getCode() + " €" + car.getPrice())
+                .collect(Collectors.toList());
+    }
 }
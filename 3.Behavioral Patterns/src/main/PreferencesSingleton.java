@@ -6,6 +6,8 @@ import main.Cars.ICar;
 import main.CashbackService.AccountCashback;
 import main.CashbackService.CashbackProfile;
 import main.CashbackService.LowCashback;
+import main.Events.CashbackEvent;
+import main.Events.Events;
 
 import java.util.*;
 
@@ -50,6 +52,10 @@ public class PreferencesSingleton implements Observer {
         this.manufacturedCars.add(car);
     }
 
+    public void appendManufacturedCars(Collection<? extends Car> cars){
+        this.manufacturedCars.addAll(cars);
+    }
+
     public List<Engine> getManufacturedEngines(){
         return this.manufacturedEngines;
     }
@@ -90,7 +96,6 @@ public class PreferencesSingleton implements Observer {
         int cashback = this.cashbackProfile.getCashbackAmount(spentAmount);
         account.addToBalance(cashback);
 
-        System.out.println("[!] Observer: Account balance changed! Withdrawn amount: $" + spentAmount
-                + " Cashback(" + this.cashbackProfile.getCashbackRate() + "%): $" + cashback);
+        Events.publish(new CashbackEvent(spentAmount, this.cashbackProfile.getCashbackRate(), cashback));
     }
 }
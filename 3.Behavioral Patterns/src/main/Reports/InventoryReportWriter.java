@@ -0,0 +1,202 @@
+package main.Reports;
+
+import main.Cars.ICar;
+import main.Events.Events;
+import main.IGarage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+// Streams the same lines as IGarage.showAllCars() to a channel: the car's toString() and its price.
+// Lines are formatted into a reused StringBuilder and encoded through a reused buffer,
+// prices are grouped by hand with the separator NumberFormat would use for the default locale.
+// In parallel mode chunks of cars are formatted on the common pool and written back in order.
+public class InventoryReportWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CARS_PER_CHUNK = 4096;
+    // Shared by every showAllCars(), so its buffers and number format are set up once and not per report
+    private static InventoryReportWriter console;
+
+    private final Charset charset;
+    private final boolean parallel;
+    private final char groupingSeparator;
+    private final int groupingSize;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final StringBuilder text = new StringBuilder(BUFFER_SIZE);
+    private final ThreadLocal<StringBuilder> chunkText = ThreadLocal.withInitial(() -> new StringBuilder(BUFFER_SIZE));
+
+    public InventoryReportWriter(){
+        this(StandardCharsets.UTF_8, false);
+    }
+
+    public InventoryReportWriter(Charset charset, boolean parallel){
+        this.charset = charset;
+        this.parallel = parallel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        NumberFormat integerFormat = NumberFormat.getIntegerInstance();
+        this.groupingSeparator = DecimalFormatSymbols.getInstance().getGroupingSeparator();
+        this.groupingSize = integerFormat instanceof DecimalFormat && ((DecimalFormat) integerFormat).getGroupingSize() > 0?
+                ((DecimalFormat) integerFormat).getGroupingSize(): 3;
+    }
+
+    // Events still queued in the sink are written first, so the report comes out after them
+    public static void writeToConsole(IGarage garage){
+        Events.getSink().flush();
+        synchronized (InventoryReportWriter.class) {
+            if (console == null) {
+                console = new InventoryReportWriter(Charset.defaultCharset(), false);
+            }
+            try {
+                console.write(garage, Channels.newChannel(System.out));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public void write(IGarage garage, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(garage, channel);
+        }
+    }
+
+    public void write(IGarage garage, WritableByteChannel channel) throws IOException {
+        if (this.parallel) {
+            writeParallel(garage, channel);
+        } else {
+            writeSequential(garage, channel);
+        }
+
+        this.text.setLength(0);
+        this.text.append("* This garages NET Price: €");
+        appendGrouped(this.text, garage.getNetGaragePrice());
+        this.text.append(System.lineSeparator());
+        encode(this.text, channel);
+        this.text.setLength(0);
+    }
+
+    private void writeSequential(IGarage garage, WritableByteChannel channel) throws IOException {
+        this.text.setLength(0);
+        for (ICar car: garage){
+            appendLine(this.text, car);
+            if (this.text.length() >= BUFFER_SIZE) {
+                encode(this.text, channel);
+                this.text.setLength(0);
+            }
+        }
+        encode(this.text, channel);
+    }
+
+    private void writeParallel(IGarage garage, WritableByteChannel channel) throws IOException {
+        // trySplit hands out prefixes, so the leaves end up in inventory order
+        List<Spliterator<ICar>> chunks = new ArrayList<>();
+        split(garage.spliterator(), chunks);
+
+        // a few chunks per core in flight at a time keeps memory bounded for huge garages
+        int chunksPerBatch = Math.max(1, Runtime.getRuntime().availableProcessors() * 4);
+        for (int first = 0; first < chunks.size(); first += chunksPerBatch){
+            byte[][] formatted = chunks.subList(first, Math.min(chunks.size(), first + chunksPerBatch))
+                    .parallelStream()
+                    .map(this::formatChunk)
+                    .toArray(byte[][]::new);
+            for (byte[] bytes: formatted){
+                writeFully(ByteBuffer.wrap(bytes), channel);
+            }
+        }
+    }
+
+    private static void split(Spliterator<ICar> cars, List<Spliterator<ICar>> chunks){
+        if (cars.estimateSize() > CARS_PER_CHUNK) {
+            Spliterator<ICar> prefix = cars.trySplit();
+            if (prefix != null) {
+                split(prefix, chunks);
+                split(cars, chunks);
+                return;
+            }
+        }
+        chunks.add(cars);
+    }
+
+    private byte[] formatChunk(Spliterator<ICar> cars){
+        StringBuilder chunk = this.chunkText.get();
+        chunk.setLength(0);
+        cars.forEachRemaining(car -> appendLine(chunk, car));
+        return chunk.toString().getBytes(this.charset);
+    }
+
+    private void appendLine(StringBuilder line, ICar car){
+        line.append(car).append(" - €");
+        appendGrouped(line, car.getPrice());
+        line.append(System.lineSeparator());
+    }
+
+    private void appendGrouped(StringBuilder line, long value){
+        if (value < 0) {
+            line.append('-');
+        }
+        String digits = Long.toString(Math.abs(value));
+        if (value == Long.MIN_VALUE) {
+            digits = digits.substring(1);
+        }
+
+        int firstGroup = digits.length() % this.groupingSize;
+        if (firstGroup == 0) {
+            firstGroup = this.groupingSize;
+        }
+        line.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += this.groupingSize){
+            line.append(this.groupingSeparator).append(digits, i, i + this.groupingSize);
+        }
+    }
+
+    private void encode(CharSequence chars, WritableByteChannel channel) throws IOException {
+        CharBuffer input = CharBuffer.wrap(chars);
+        this.encoder.reset();
+        while (true){
+            CoderResult result = this.encoder.encode(input, this.byteBuffer, true);
+            if (result.isOverflow()) {
+                drain(channel);
+                continue;
+            }
+            break;
+        }
+        while (this.encoder.flush(this.byteBuffer).isOverflow()){
+            drain(channel);
+        }
+        drain(channel);
+    }
+
+    private void drain(WritableByteChannel channel) throws IOException {
+        this.byteBuffer.flip();
+        writeFully(this.byteBuffer, channel);
+        this.byteBuffer.clear();
+    }
+
+    private static void writeFully(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        while (buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+    }
+}
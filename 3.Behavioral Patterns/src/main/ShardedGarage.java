@@ -0,0 +1,369 @@
+package main;
+
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.Events.DiscountEvent;
+import main.Events.Events;
+import main.Snapshots.CarRecord;
+import main.Snapshots.PersistentVector;
+import main.Storage.CarStorage;
+import main.Storage.ListCarStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Spreads the cars over N inner garages, either keeping every manufacturer on one shard or by hash.
+// The hash is taken over manufacturer, model, year and type, which a snapshot keeps, so a restore puts every car
+// back on the shard it was saved from.
+// Each shard keeps its own storage, index and aggregates, so the cost of a large inventory is split between them.
+// Discounts run on all shards in parallel and parallel streams split at shard boundaries first.
+// A car whose manufacturer, model, year or type changes stays on its shard until the next rebalance().
+// Indexed queries, pagination and aggregates are read from the shards one by one through getShard().
+public class ShardedGarage implements IGarage {
+    public enum Partitioning {
+        MANUFACTURER, HASH
+    }
+
+    private final Partitioning partitioning;
+    private final Supplier<CarStorage> storageSupplier;
+    private Garage[] shards;
+    // shard of every manufacturer, only used when partitioning by manufacturer
+    private final int[] manufacturerShards = new int[Manufacturer.values().length];
+
+    public ShardedGarage(){
+        this(Runtime.getRuntime().availableProcessors(), Partitioning.HASH);
+    }
+
+    public ShardedGarage(int shardsCount, Partitioning partitioning){
+        this(shardsCount, partitioning, ListCarStorage::new);
+    }
+
+    public ShardedGarage(int shardsCount, Partitioning partitioning, Supplier<CarStorage> storageSupplier){
+        this.partitioning = partitioning;
+        this.storageSupplier = storageSupplier;
+        this.shards = newShards(shardsCount);
+        for (Manufacturer manufacturer: Manufacturer.values()){
+            this.manufacturerShards[manufacturer.ordinal()] = manufacturer.ordinal() % shardsCount;
+        }
+    }
+
+    @Override
+    public void addCars(ICar... cars){
+        if (cars.length == 1) {
+            this.shards[shardOf(cars[0])].addCars(cars);
+            return;
+        }
+        for (ICar[] routed: route(Arrays.asList(cars), this.shards.length)){
+            if (routed.length > 0) {
+                this.shards[shardOf(routed[0])].addCars(routed);
+            }
+        }
+    }
+
+    @Override
+    public boolean removeCar(ICar car){
+        int home = shardOf(car);
+        if (this.shards[home].removeCar(car)) {
+            return true;
+        }
+        // the car may have changed its manufacturer since it was added
+        for (int shard = 0; shard < this.shards.length; shard++){
+            if (shard != home && this.shards[shard].removeCar(car)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Every shard keeps its total up to date, so gathering them is cheaper than forking for it
+    @Override
+    public long getNetGaragePrice(){
+        long totalPrice = 0;
+        for (Garage shard: this.shards){
+            totalPrice += shard.getNetGaragePrice();
+        }
+        return totalPrice;
+    }
+
+    @Override
+    public int getCarsCount(){
+        int count = 0;
+        for (Garage shard: this.shards){
+            count += shard.getCarsCount();
+        }
+        return count;
+    }
+
+    // Position in iteration order, shard by shard
+    @Override
+    public ICar getCar(int slot){
+        int offset = slot;
+        for (Garage shard: this.shards){
+            if (offset < shard.getCarsCount()) {
+                return shard.getCar(offset);
+            }
+            offset -= shard.getCarsCount();
+        }
+        throw new IndexOutOfBoundsException("Slot " + slot + " is out of bounds");
+    }
+
+    public int getShardsCount(){
+        return this.shards.length;
+    }
+
+    public Garage getShard(int shard){
+        return this.shards[shard];
+    }
+
+    public Partitioning getPartitioning(){
+        return this.partitioning;
+    }
+
+    @Override
+    public void applyDiscount(float percentage){
+        Arrays.stream(this.shards).parallel().forEach(shard -> shard.discount(percentage));
+        Events.publish(new DiscountEvent(percentage));
+    }
+
+    @Override
+    public BulkUpdate bulk(){
+        return new BulkUpdate(this::applyBulk);
+    }
+
+    private BulkUpdateSummary applyBulk(List<BulkUpdate.Step> steps){
+        return Arrays.stream(this.shards).parallel()
+                .map(shard -> shard.applyBulk(steps))
+                .reduce(new BulkUpdateSummary(0, 0, 0, new int[steps.size()]), BulkUpdateSummary::merge);
+    }
+
+    @Override
+    public Iterator<ICar> iterator(){
+        return new ShardsIterator();
+    }
+
+    @Override
+    public Spliterator<ICar> spliterator(){
+        Spliterator<ICar>[] parts = newSpliterators(this.shards.length);
+        for (int shard = 0; shard < this.shards.length; shard++){
+            parts[shard] = this.shards[shard].spliterator();
+        }
+        return new ShardsSpliterator(parts, 0, parts.length);
+    }
+
+    @Override
+    public GarageMemento save(){
+        Object edit = new Object();
+        PersistentVector<CarRecord> records = PersistentVector.empty();
+        for (Garage shard: this.shards){
+            PersistentVector<CarRecord> shardRecords = shard.save().getRecords();
+            for (int slot = 0; slot < shardRecords.size(); slot++){
+                records = records.append(shardRecords.get(slot), edit);
+            }
+        }
+        return new GarageMemento(records);
+    }
+
+    @Override
+    public void restore(GarageMemento memento){
+        PersistentVector<CarRecord> saved = memento.getRecords();
+        Object edit = new Object();
+        List<PersistentVector<CarRecord>> shardRecords = new ArrayList<>(this.shards.length);
+        for (int shard = 0; shard < this.shards.length; shard++){
+            shardRecords.add(PersistentVector.empty());
+        }
+        for (int slot = 0; slot < saved.size(); slot++){
+            CarRecord record = saved.get(slot);
+            int shard = shardOf(record.getManufacturer(), record.getModel(), record.getYear(), record.getType(), this.shards.length);
+            shardRecords.set(shard, shardRecords.get(shard).append(record, edit));
+        }
+        for (int shard = 0; shard < this.shards.length; shard++){
+            this.shards[shard].restore(new GarageMemento(shardRecords.get(shard)));
+        }
+    }
+
+    public void rebalance(){
+        rebalance(this.shards.length);
+    }
+
+    // Moves every car to the shard it belongs to with the given number of shards.
+    // When partitioning by manufacturer the biggest manufacturers are spread first, each to the emptiest shard.
+    public void rebalance(int shardsCount){
+        // fails on a bad count before anything is moved
+        Garage[] rebalanced = newShards(shardsCount);
+        List<ICar> cars = new ArrayList<>(getCarsCount());
+        forEach(cars::add);
+
+        if (this.partitioning == Partitioning.MANUFACTURER) {
+            assignManufacturers(cars, shardsCount);
+        }
+
+        for (ICar[] routed: route(cars, shardsCount)){
+            if (routed.length > 0) {
+                rebalanced[shardOf(routed[0], shardsCount)].addCars(routed);
+            }
+        }
+        // the old shards let go of their cars only once the new ones hold them
+        for (Garage shard: this.shards){
+            shard.restore(new GarageMemento(PersistentVector.empty()));
+        }
+        this.shards = rebalanced;
+    }
+
+    private void assignManufacturers(List<ICar> cars, int shardsCount){
+        int[] counts = new int[Manufacturer.values().length];
+        for (ICar car: cars){
+            counts[car.getManufacturer().ordinal()]++;
+        }
+        Manufacturer[] bySize = Manufacturer.values();
+        Arrays.sort(bySize, (first, second) -> Integer.compare(counts[second.ordinal()], counts[first.ordinal()]));
+
+        long[] loads = new long[shardsCount];
+        for (Manufacturer manufacturer: bySize){
+            int emptiest = 0;
+            for (int shard = 1; shard < shardsCount; shard++){
+                if (loads[shard] < loads[emptiest]) {
+                    emptiest = shard;
+                }
+            }
+            this.manufacturerShards[manufacturer.ordinal()] = emptiest;
+            loads[emptiest] += counts[manufacturer.ordinal()];
+        }
+    }
+
+    private ICar[][] route(List<ICar> cars, int shardsCount){
+        int[] counts = new int[shardsCount];
+        for (ICar car: cars){
+            counts[shardOf(car, shardsCount)]++;
+        }
+        ICar[][] routed = new ICar[shardsCount][];
+        for (int shard = 0; shard < shardsCount; shard++){
+            routed[shard] = new ICar[counts[shard]];
+            counts[shard] = 0;
+        }
+        for (ICar car: cars){
+            int shard = shardOf(car, shardsCount);
+            routed[shard][counts[shard]++] = car;
+        }
+        return routed;
+    }
+
+    private int shardOf(ICar car){
+        return shardOf(car, this.shards.length);
+    }
+
+    private int shardOf(ICar car, int shardsCount){
+        return shardOf(car.getManufacturer(), car.getModel(), car.getYear(), car.getType(), shardsCount);
+    }
+
+    private int shardOf(Manufacturer manufacturer, String model, int year, CarType type, int shardsCount){
+        if (this.partitioning == Partitioning.MANUFACTURER) {
+            return this.manufacturerShards[manufacturer.ordinal()] % shardsCount;
+        }
+        int hash = manufacturer.ordinal();
+        hash = 31 * hash + (model != null? model.hashCode(): 0);
+        hash = 31 * hash + year;
+        hash = 31 * hash + type.ordinal();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash * 0x9E3779B9, shardsCount);
+    }
+
+    private Garage[] newShards(int shardsCount){
+        if (shardsCount < 1) {
+            throw new IllegalArgumentException("A garage needs at least one shard, got " + shardsCount);
+        }
+        Garage[] created = new Garage[shardsCount];
+        for (int shard = 0; shard < shardsCount; shard++){
+            created[shard] = new Garage(this.storageSupplier.get());
+        }
+        return created;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Spliterator<ICar>[] newSpliterators(int length){
+        return (Spliterator<ICar>[]) new Spliterator[length];
+    }
+
+    private class ShardsIterator implements Iterator<ICar> {
+        private int shard;
+        private Iterator<ICar> current = shards[0].iterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!this.current.hasNext() && this.shard < shards.length - 1){
+                this.current = shards[++this.shard].iterator();
+            }
+            return this.current.hasNext();
+        }
+
+        @Override
+        public ICar next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.current.next();
+        }
+    }
+
+    // Covers shards [from, to); splits between shards while there are several, then inside the last one
+    private static final class ShardsSpliterator implements Spliterator<ICar> {
+        private final Spliterator<ICar>[] parts;
+        private int from;
+        private final int to;
+
+        ShardsSpliterator(Spliterator<ICar>[] parts, int from, int to){
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ICar> action) {
+            while (this.from < this.to){
+                if (this.parts[this.from].tryAdvance(action)) {
+                    return true;
+                }
+                this.from++;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super ICar> action) {
+            for (; this.from < this.to; this.from++){
+                this.parts[this.from].forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<ICar> trySplit() {
+            if (this.to - this.from > 1) {
+                int middle = (this.from + this.to) >>> 1;
+                ShardsSpliterator prefix = new ShardsSpliterator(this.parts, this.from, middle);
+                this.from = middle;
+                return prefix;
+            }
+            return this.from < this.to? this.parts[this.from].trySplit(): null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int part = this.from; part < this.to; part++){
+                size += this.parts[part].estimateSize();
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+}
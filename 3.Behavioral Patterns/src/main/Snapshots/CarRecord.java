@@ -0,0 +1,132 @@
+package main.Snapshots;
+
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.Car;
+import main.Cars.ICar;
+import main.Cars.LuxuryCar;
+import main.Cars.SavCar;
+import main.Cars.SedanCar;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+
+import java.util.Objects;
+
+// Immutable copy of a car's state at the moment it was recorded.
+// car points back to the object the state belongs to when there is one, so a restore
+// can put the same instance back with its old values; without one a restore builds a new car.
+// Only a garage that still holds the car may revert into it, others revert a detach()ed copy.
+public final class CarRecord {
+    private final ICar car;
+    private final Manufacturer manufacturer;
+    private final String model;
+    private final int year;
+    private final CarType type;
+    private final ICarColorScheme colorScheme;
+    private final int price;
+
+    public CarRecord(ICar car, Manufacturer manufacturer, String model, int year, CarType type, ICarColorScheme colorScheme, int price){
+        this.car = car;
+        this.manufacturer = manufacturer;
+        this.model = model;
+        this.year = year;
+        this.type = type;
+        this.colorScheme = colorScheme;
+        this.price = price;
+    }
+
+    public static CarRecord of(ICar car){
+        return new CarRecord(car, car.getManufacturer(), car.getModel(), car.getYear(), car.getType(), car.getColorScheme(), car.getPrice());
+    }
+
+    public static CarRecord detached(ICar car){
+        return new CarRecord(null, car.getManufacturer(), car.getModel(), car.getYear(), car.getType(), car.getColorScheme(), car.getPrice());
+    }
+
+    // The same state without the car, reverting it builds a new car
+    public CarRecord detach(){
+        return this.car == null? this: new CarRecord(null, this.manufacturer, this.model, this.year, this.type, this.colorScheme, this.price);
+    }
+
+    public CarRecord withPrice(int newPrice){
+        return newPrice == this.price? this: new CarRecord(this.car, this.manufacturer, this.model, this.year, this.type, this.colorScheme, newPrice);
+    }
+
+    // Writes the recorded state back into the car it was taken from,
+    // a detached record (columnar storage, snapshot files) is built into a new car instead
+    public ICar revert(){
+        if (this.car == null) {
+            return newCar();
+        }
+        this.car.setManufacturer(this.manufacturer);
+        this.car.setModel(this.model);
+        this.car.setYear(this.year);
+        this.car.setType(this.type);
+        this.car.setColorScheme(this.colorScheme);
+        this.car.setPrice(this.price);
+        return this.car;
+    }
+
+    private ICar newCar(){
+        Car car;
+        switch (this.type){
+            case SEDAN:
+                car = new SedanCar(this.manufacturer, this.model, this.year);
+                break;
+            case SAV:
+                car = new SavCar(this.manufacturer, this.model, this.year);
+                break;
+            case LUXURY:
+                car = new LuxuryCar(this.manufacturer, this.model, this.year);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown car type: " + this.type);
+        }
+        car.setColorScheme(this.colorScheme);
+        car.setPrice(this.price);
+        return car;
+    }
+
+    // Whether the car still holds exactly the recorded state
+    public boolean matches(ICar car){
+        ICarColorScheme colorScheme = car.getColorScheme();
+        return car.getPrice() == this.price
+                && car.getYear() == this.year
+                && car.getManufacturer() == this.manufacturer
+                && car.getType() == this.type
+                && Objects.equals(car.getModel(), this.model)
+                && (colorScheme == this.colorScheme || colorScheme.getCode() == this.colorScheme.getCode());
+    }
+
+    public ICar getCar(){
+        return this.car;
+    }
+
+    public Manufacturer getManufacturer(){
+        return this.manufacturer;
+    }
+
+    public String getModel(){
+        return this.model;
+    }
+
+    public int getYear(){
+        return this.year;
+    }
+
+    public CarType getType(){
+        return this.type;
+    }
+
+    public ICarColorScheme getColorScheme(){
+        return this.colorScheme;
+    }
+
+    public int getPrice(){
+        return this.price;
+    }
+
+    @Override
+    public String toString(){
+        return this.manufacturer + " " + this.model + "(" + this.type + ") manufactured in " + this.year;
+    }
+}
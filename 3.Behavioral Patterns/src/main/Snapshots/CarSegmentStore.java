@@ -0,0 +1,263 @@
+package main.Snapshots;
+
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.ICar;
+import main.Cars.ModelNames;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Disk-resident cars: fixed-width records (see RecordLayout) spread over segment files of 64K cars each.
+// A segment is mapped read-write the first time one of its records is touched, so the records live in the
+// page cache instead of the heap and every write goes straight into the file.
+// store.meta keeps the cars count and net price, models.dat the model names the records refer to.
+public final class CarSegmentStore implements Closeable {
+    private static final int MAGIC = 0x47525331;
+    private static final int CARS_PER_SEGMENT = 1 << 16;
+    private static final int RECORD_SIZE = RecordLayout.RECORD_SIZE;
+    private static final int SEGMENT_SIZE = CARS_PER_SEGMENT * RECORD_SIZE;
+    private static final int META_SIZE = 16;
+
+    private final Path directory;
+    private final MappedByteBuffer meta;
+    private final FileChannel modelsChannel;
+    private final List<String> models = new ArrayList<>();
+    private final Map<String, Integer> modelIds = new HashMap<>();
+    private MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private int carsCount;
+    private long netPrice;
+
+    private CarSegmentStore(Path directory, MappedByteBuffer meta, FileChannel modelsChannel){
+        this.directory = directory;
+        this.meta = meta;
+        this.modelsChannel = modelsChannel;
+    }
+
+    // Opens the store kept in the directory, creating an empty one if there is none yet
+    public static CarSegmentStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        MappedByteBuffer meta;
+        try (FileChannel channel = FileChannel.open(directory.resolve("store.meta"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean created = channel.size() == 0;
+            meta = channel.map(FileChannel.MapMode.READ_WRITE, 0, META_SIZE);
+            if (created) {
+                meta.putInt(0, MAGIC);
+            } else if (meta.getInt(0) != MAGIC) {
+                throw new IOException("Not a car segment store: " + directory);
+            }
+        }
+
+        FileChannel modelsChannel = FileChannel.open(directory.resolve("models.dat"), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        CarSegmentStore store = new CarSegmentStore(directory, meta, modelsChannel);
+        store.carsCount = meta.getInt(4);
+        store.netPrice = meta.getLong(8);
+        store.readModels();
+        return store;
+    }
+
+    public int size(){
+        return this.carsCount;
+    }
+
+    public long getNetPrice(){
+        return this.netPrice;
+    }
+
+    public int getPrice(int slot){
+        return RecordLayout.price(segmentOf(slot), offsetOf(slot));
+    }
+
+    public int getYear(int slot){
+        return RecordLayout.year(segmentOf(slot), offsetOf(slot));
+    }
+
+    public String getModel(int slot){
+        int id = RecordLayout.modelId(segmentOf(slot), offsetOf(slot));
+        return id < 0? null: this.models.get(id);
+    }
+
+    public Manufacturer getManufacturer(int slot){
+        return RecordLayout.manufacturer(segmentOf(slot), offsetOf(slot));
+    }
+
+    public CarType getType(int slot){
+        return RecordLayout.type(segmentOf(slot), offsetOf(slot));
+    }
+
+    public ICarColorScheme getColorScheme(int slot){
+        return RecordLayout.colorScheme(segmentOf(slot), offsetOf(slot));
+    }
+
+    public CarRecord read(int slot){
+        return new CarRecord(null, getManufacturer(slot), getModel(slot), getYear(slot), getType(slot), getColorScheme(slot), getPrice(slot));
+    }
+
+    public void setPrice(int slot, int price){
+        ByteBuffer segment = segmentOf(slot);
+        int offset = offsetOf(slot);
+        setNetPrice(this.netPrice - RecordLayout.price(segment, offset) + price);
+        segment.putInt(offset + RecordLayout.PRICE, price);
+    }
+
+    public void write(int slot, ICar car){
+        checkIndex(slot);
+        write(slot, car.getManufacturer(), car.getModel(), car.getYear(), car.getType(), car.getColorScheme(), car.getPrice());
+    }
+
+    public int append(ICar car){
+        int slot = this.carsCount;
+        write(slot, car.getManufacturer(), car.getModel(), car.getYear(), car.getType(), car.getColorScheme(), car.getPrice());
+        setCarsCount(slot + 1);
+        return slot;
+    }
+
+    public void copy(int from, int to){
+        ByteBuffer source = segmentOf(from);
+        ByteBuffer target = segmentOf(to);
+        int sourceOffset = offsetOf(from);
+        int targetOffset = offsetOf(to);
+        setNetPrice(this.netPrice - RecordLayout.price(target, targetOffset) + RecordLayout.price(source, sourceOffset));
+        for (int i = 0; i < RECORD_SIZE; i += Integer.BYTES){
+            target.putInt(targetOffset + i, source.getInt(sourceOffset + i));
+        }
+    }
+
+    public void removeLast(){
+        int slot = this.carsCount - 1;
+        setNetPrice(this.netPrice - getPrice(slot));
+        setCarsCount(slot);
+    }
+
+    // Walks the price column segment by segment without building a single car
+    public void applyDiscount(float percentage){
+        long totalPrice = 0;
+        for (int slot = 0; slot < this.carsCount; slot += CARS_PER_SEGMENT){
+            ByteBuffer segment = segment(slot / CARS_PER_SEGMENT);
+            int cars = Math.min(CARS_PER_SEGMENT, this.carsCount - slot);
+            for (int offset = 0; offset < cars * RECORD_SIZE; offset += RECORD_SIZE){
+                int price = (int)(segment.getInt(offset + RecordLayout.PRICE) * (100 - percentage) / 100);
+                segment.putInt(offset + RecordLayout.PRICE, price);
+                totalPrice += price;
+            }
+        }
+        setNetPrice(totalPrice);
+    }
+
+    public void flush(){
+        this.meta.force();
+        for (MappedByteBuffer segment: this.segments){
+            if (segment != null) {
+                segment.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        this.modelsChannel.close();
+    }
+
+    private void write(int slot, Manufacturer manufacturer, String model, int year, CarType type, ICarColorScheme colorScheme, int price){
+        ByteBuffer segment = segment(slot / CARS_PER_SEGMENT);
+        int offset = offsetOf(slot);
+        long oldPrice = slot < this.carsCount? RecordLayout.price(segment, offset): 0;
+        RecordLayout.write(segment, offset, price, year, modelId(model), manufacturer, type, colorScheme);
+        setNetPrice(this.netPrice - oldPrice + price);
+    }
+
+    private int modelId(String model){
+        if (model == null) {
+            return -1;
+        }
+        Integer id = this.modelIds.get(model);
+        if (id == null) {
+            byte[] bytes = model.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer entry = ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+            entry.flip();
+            try {
+                while (entry.hasRemaining()){
+                    this.modelsChannel.write(entry, this.modelsChannel.size());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            id = this.models.size();
+            this.models.add(model);
+            this.modelIds.put(model, id);
+        }
+        return id;
+    }
+
+    private void readModels() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) this.modelsChannel.size());
+        while (buffer.hasRemaining()){
+            if (this.modelsChannel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        while (buffer.remaining() >= Integer.BYTES){
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            String model = ModelNames.canonical(new String(bytes, StandardCharsets.UTF_8));
+            this.modelIds.put(model, this.models.size());
+            this.models.add(model);
+        }
+    }
+
+    private ByteBuffer segmentOf(int slot){
+        checkIndex(slot);
+        return segment(slot / CARS_PER_SEGMENT);
+    }
+
+    private static int offsetOf(int slot){
+        return (slot % CARS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    private ByteBuffer segment(int index){
+        if (index >= this.segments.length) {
+            this.segments = Arrays.copyOf(this.segments, Math.max(index + 1, this.segments.length * 2));
+        }
+        if (this.segments[index] == null) {
+            Path file = this.directory.resolve(String.format("segment-%05d.bin", index));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.segments[index] = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return this.segments[index];
+    }
+
+    private void setCarsCount(int carsCount){
+        this.carsCount = carsCount;
+        this.meta.putInt(4, carsCount);
+    }
+
+    private void setNetPrice(long netPrice){
+        this.netPrice = netPrice;
+        this.meta.putLong(8, netPrice);
+    }
+
+    private void checkIndex(int slot){
+        if (slot < 0 || slot >= this.carsCount) {
+            throw new IndexOutOfBoundsException("Index: " + slot + ", Size: " + this.carsCount);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package main.Snapshots;
+
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.ModelNames;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.Garage;
+import main.GarageMemento;
+import main.IGarage;
+import main.Storage.SnapshotCarStorage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Binary snapshot of a garage: a header, one fixed-width record per car and a dictionary of model names.
+//
+//   header   magic, version, cars count, models count (ints), net price, dictionary offset (longs)
+//   record   see RecordLayout
+//   models   length prefixed UTF-8 strings, a record refers to one by its position
+//
+// open() maps the file and only reads the header and the dictionary, the records are decoded when they are asked for.
+// toGarage() keeps it that way, toMemento() decodes all of them once it is restored.
+public final class GarageSnapshotFile {
+    private static final int MAGIC = 0x47524731;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_SIZE = RecordLayout.RECORD_SIZE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int carsCount;
+    private final long netPrice;
+    private final String[] models;
+
+    private GarageSnapshotFile(ByteBuffer buffer, int carsCount, long netPrice, String[] models){
+        this.buffer = buffer;
+        this.carsCount = carsCount;
+        this.netPrice = netPrice;
+        this.models = models;
+    }
+
+    public static void write(IGarage garage, Path file) throws IOException {
+        write(garage.save(), file);
+    }
+
+    public static void write(GarageMemento memento, Path file) throws IOException {
+        PersistentVector<CarRecord> records = memento.getRecords();
+        Map<String, Integer> modelIds = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long netPrice = 0;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_SIZE);
+            for (int slot = 0; slot < records.size(); slot++){
+                CarRecord record = records.get(slot);
+                if (buffer.remaining() < RECORD_SIZE) {
+                    flush(buffer, channel);
+                }
+                RecordLayout.write(buffer, buffer.position(), record.getPrice(), record.getYear(), modelId(modelIds, record.getModel()),
+                        record.getManufacturer(), record.getType(), record.getColorScheme());
+                buffer.position(buffer.position() + RECORD_SIZE);
+                netPrice += record.getPrice();
+            }
+
+            String[] models = new String[modelIds.size()];
+            modelIds.forEach((model, id) -> models[id] = model);
+            for (String model: models){
+                byte[] bytes = model.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                    flush(buffer, channel);
+                }
+                if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                    flush(ByteBuffer.allocate(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes), channel);
+                } else {
+                    buffer.putInt(bytes.length).put(bytes);
+                }
+            }
+            flush(buffer, channel);
+
+            buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(records.size())
+                    .putInt(models.length)
+                    .putLong(netPrice)
+                    .putLong(HEADER_SIZE + (long) records.size() * RECORD_SIZE);
+            buffer.flip();
+            long position = 0;
+            while (buffer.hasRemaining()){
+                position += channel.write(buffer, position);
+            }
+        }
+    }
+
+    public static GarageSnapshotFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a garage snapshot of a supported size: " + file);
+            }
+            // the mapping stays valid after the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a garage snapshot: " + file);
+            }
+
+            int carsCount = buffer.getInt(8);
+            String[] models = new String[buffer.getInt(12)];
+            ByteBuffer dictionary = buffer.duplicate();
+            dictionary.position((int) buffer.getLong(24));
+            for (int id = 0; id < models.length; id++){
+                byte[] bytes = new byte[dictionary.getInt()];
+                dictionary.get(bytes);
+                models[id] = ModelNames.canonical(new String(bytes, StandardCharsets.UTF_8));
+            }
+            return new GarageSnapshotFile(buffer, carsCount, buffer.getLong(16), models);
+        }
+    }
+
+    public int getCarsCount(){
+        return this.carsCount;
+    }
+
+    public long getNetPrice(){
+        return this.netPrice;
+    }
+
+    public int getPrice(int slot){
+        return RecordLayout.price(this.buffer, offset(slot));
+    }
+
+    public int getYear(int slot){
+        return RecordLayout.year(this.buffer, offset(slot));
+    }
+
+    public String getModel(int slot){
+        int id = RecordLayout.modelId(this.buffer, offset(slot));
+        return id < 0? null: this.models[id];
+    }
+
+    public Manufacturer getManufacturer(int slot){
+        return RecordLayout.manufacturer(this.buffer, offset(slot));
+    }
+
+    public CarType getType(int slot){
+        return RecordLayout.type(this.buffer, offset(slot));
+    }
+
+    public ICarColorScheme getColorScheme(int slot){
+        return RecordLayout.colorScheme(this.buffer, offset(slot));
+    }
+
+    public CarRecord record(int slot){
+        return new CarRecord(null, getManufacturer(slot), getModel(slot), getYear(slot), getType(slot), getColorScheme(slot), getPrice(slot));
+    }
+
+    // Records are decoded the first time the memento is asked for them
+    public GarageMemento toMemento(){
+        return new GarageMemento(this);
+    }
+
+    // A garage reading its cars from this file, nothing is decoded up front:
+    // cars are read when they are asked for and copied out of the file on the first change
+    public Garage toGarage(){
+        return new Garage(new SnapshotCarStorage(this));
+    }
+
+    public PersistentVector<CarRecord> readRecords(){
+        Object edit = new Object();
+        PersistentVector<CarRecord> records = PersistentVector.empty();
+        for (int slot = 0; slot < this.carsCount; slot++){
+            records = records.append(record(slot), edit);
+        }
+        return records;
+    }
+
+    private int offset(int slot){
+        if (slot < 0 || slot >= this.carsCount) {
+            throw new IndexOutOfBoundsException("Index: " + slot + ", Size: " + this.carsCount);
+        }
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static int modelId(Map<String, Integer> modelIds, String model){
+        if (model == null) {
+            return -1;
+        }
+        Integer id = modelIds.get(model);
+        if (id == null) {
+            id = modelIds.size();
+            modelIds.put(model, id);
+        }
+        return id;
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()){
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
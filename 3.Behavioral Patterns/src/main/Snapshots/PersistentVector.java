@@ -0,0 +1,208 @@
+package main.Snapshots;
+
+// Persistent 32-way trie with a detached tail (the layout Clojure uses for its vectors).
+// Every update returns a new vector and copies only the O(log32 n) nodes on the path,
+// so older versions stay valid and share everything else with the newer ones.
+// Updates made with an edit token may reuse nodes created under that same token in place;
+// callers switch to a new token whenever they hand a version out to someone else.
+public final class PersistentVector<T> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object NO_EDIT = new Object();
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, new Node(NO_EDIT), new Node(NO_EDIT));
+
+    private final int size;
+    private final int shift;
+    private final Node root;
+    private final Node tail;
+
+    private PersistentVector(int size, int shift, Node root, Node tail){
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty(){
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    public int size(){
+        return this.size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int index){
+        return (T) leafFor(index).array[index & MASK];
+    }
+
+    public PersistentVector<T> set(int index, T value){
+        return set(index, value, new Object());
+    }
+
+    public PersistentVector<T> set(int index, T value, Object edit){
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            Node newTail = editable(this.tail, edit);
+            newTail.array[index & MASK] = value;
+            return newTail == this.tail? this: new PersistentVector<>(this.size, this.shift, this.root, newTail);
+        }
+
+        Node newRoot = set(this.shift, this.root, index, value, edit);
+        return newRoot == this.root? this: new PersistentVector<>(this.size, this.shift, newRoot, this.tail);
+    }
+
+    public PersistentVector<T> append(T value){
+        return append(value, new Object());
+    }
+
+    public PersistentVector<T> append(T value, Object edit){
+        if (this.size - tailOffset() < WIDTH) {
+            Node newTail = editable(this.tail, edit);
+            newTail.array[this.size & MASK] = value;
+            return new PersistentVector<>(this.size + 1, this.shift, this.root, newTail);
+        }
+
+        // tail is full: push it into the trie and start a new one
+        Node newRoot;
+        int newShift = this.shift;
+        if ((this.size >>> BITS) > (1 << this.shift)) {
+            newRoot = new Node(edit);
+            newRoot.array[0] = this.root;
+            newRoot.array[1] = newPath(this.shift, this.tail, edit);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(this.shift, this.root, this.tail, edit);
+        }
+
+        Node newTail = new Node(edit);
+        newTail.array[0] = value;
+        return new PersistentVector<>(this.size + 1, newShift, newRoot, newTail);
+    }
+
+    public PersistentVector<T> pop(){
+        return pop(new Object());
+    }
+
+    public PersistentVector<T> pop(Object edit){
+        if (this.size == 0) {
+            throw new IllegalStateException("Can not pop from an empty vector");
+        }
+        if (this.size == 1) {
+            return empty();
+        }
+
+        if (this.size - tailOffset() > 1) {
+            Node newTail = editable(this.tail, edit);
+            newTail.array[(this.size - 1) & MASK] = null;
+            return new PersistentVector<>(this.size - 1, this.shift, this.root, newTail);
+        }
+
+        // tail holds a single element: the last leaf of the trie becomes the new tail
+        Node newTail = leafFor(this.size - 2);
+        Node newRoot = popTail(this.shift, this.root, edit);
+        int newShift = this.shift;
+        if (newRoot == null) {
+            newRoot = new Node(edit);
+        }
+        if (this.shift > BITS && newRoot.array[1] == null) {
+            newRoot = (Node) newRoot.array[0];
+            newShift -= BITS;
+        }
+        return new PersistentVector<>(this.size - 1, newShift, newRoot, newTail);
+    }
+
+    private Node set(int level, Node node, int index, Object value, Object edit){
+        Node result = editable(node, edit);
+        if (level == 0) {
+            result.array[index & MASK] = value;
+        } else {
+            int child = (index >>> level) & MASK;
+            result.array[child] = set(level - BITS, (Node) node.array[child], index, value, edit);
+        }
+        return result;
+    }
+
+    private Node pushTail(int level, Node parent, Node tailNode, Object edit){
+        int child = ((this.size - 1) >>> level) & MASK;
+        Node result = editable(parent, edit);
+        Node toInsert;
+        if (level == BITS) {
+            toInsert = tailNode;
+        } else {
+            Node existing = (Node) parent.array[child];
+            toInsert = existing != null? pushTail(level - BITS, existing, tailNode, edit): newPath(level - BITS, tailNode, edit);
+        }
+        result.array[child] = toInsert;
+        return result;
+    }
+
+    private Node popTail(int level, Node node, Object edit){
+        int child = ((this.size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Node newChild = popTail(level - BITS, (Node) node.array[child], edit);
+            if (newChild == null && child == 0) {
+                return null;
+            }
+            Node result = editable(node, edit);
+            result.array[child] = newChild;
+            return result;
+        } else if (child == 0) {
+            return null;
+        }
+        Node result = editable(node, edit);
+        result.array[child] = null;
+        return result;
+    }
+
+    private static Node newPath(int level, Node node, Object edit){
+        if (level == 0) {
+            return node;
+        }
+        Node result = new Node(edit);
+        result.array[0] = newPath(level - BITS, node, edit);
+        return result;
+    }
+
+    private static Node editable(Node node, Object edit){
+        return node.edit == edit? node: new Node(edit, node.array.clone());
+    }
+
+    private Node leafFor(int index){
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            return this.tail;
+        }
+        Node node = this.root;
+        for (int level = this.shift; level > 0; level -= BITS){
+            node = (Node) node.array[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private int tailOffset(){
+        return this.size < WIDTH? 0: ((this.size - 1) >>> BITS) << BITS;
+    }
+
+    private void checkIndex(int index){
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    private static final class Node {
+        private final Object edit;
+        private final Object[] array;
+
+        Node(Object edit){
+            this(edit, new Object[WIDTH]);
+        }
+
+        Node(Object edit, Object[] array){
+            this.edit = edit;
+            this.array = array;
+        }
+    }
+}
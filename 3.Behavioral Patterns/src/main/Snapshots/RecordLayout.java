@@ -0,0 +1,65 @@
+package main.Snapshots;
+
+import main.CarColorSchemes.ColorSchemes;
+import main.CarColorSchemes.ICarColorScheme;
+import main.Enums.CarType;
+import main.Enums.Color;
+import main.Enums.InteriorColor;
+import main.Enums.Manufacturer;
+
+import java.nio.ByteBuffer;
+
+// Fixed-width car record shared by snapshot files and segment stores:
+// price, year and model id as ints, then manufacturer, type, body color and interior color as enum ordinals.
+final class RecordLayout {
+    static final int RECORD_SIZE = 16;
+    static final int PRICE = 0;
+    static final int YEAR = 4;
+    static final int MODEL = 8;
+    static final int MANUFACTURER = 12;
+    static final int TYPE = 13;
+    static final int BODY_COLOR = 14;
+    static final int INTERIOR_COLOR = 15;
+
+    private static final Manufacturer[] MANUFACTURERS = Manufacturer.values();
+    private static final CarType[] CAR_TYPES = CarType.values();
+    private static final Color[] COLORS = Color.values();
+    private static final InteriorColor[] INTERIOR_COLORS = InteriorColor.values();
+
+    private RecordLayout(){
+    }
+
+    static void write(ByteBuffer buffer, int offset, int price, int year, int modelId, Manufacturer manufacturer, CarType type, ICarColorScheme colorScheme){
+        buffer.putInt(offset + PRICE, price);
+        buffer.putInt(offset + YEAR, year);
+        buffer.putInt(offset + MODEL, modelId);
+        buffer.put(offset + MANUFACTURER, (byte) manufacturer.ordinal());
+        buffer.put(offset + TYPE, (byte) type.ordinal());
+        buffer.put(offset + BODY_COLOR, (byte) colorScheme.getBodyColor().ordinal());
+        buffer.put(offset + INTERIOR_COLOR, (byte) colorScheme.getInteriorColor().ordinal());
+    }
+
+    static int price(ByteBuffer buffer, int offset){
+        return buffer.getInt(offset + PRICE);
+    }
+
+    static int year(ByteBuffer buffer, int offset){
+        return buffer.getInt(offset + YEAR);
+    }
+
+    static int modelId(ByteBuffer buffer, int offset){
+        return buffer.getInt(offset + MODEL);
+    }
+
+    static Manufacturer manufacturer(ByteBuffer buffer, int offset){
+        return MANUFACTURERS[buffer.get(offset + MANUFACTURER)];
+    }
+
+    static CarType type(ByteBuffer buffer, int offset){
+        return CAR_TYPES[buffer.get(offset + TYPE)];
+    }
+
+    static ICarColorScheme colorScheme(ByteBuffer buffer, int offset){
+        return ColorSchemes.of(COLORS[buffer.get(offset + BODY_COLOR)], INTERIOR_COLORS[buffer.get(offset + INTERIOR_COLOR)]);
+    }
+}
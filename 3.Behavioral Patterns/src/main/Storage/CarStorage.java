@@ -0,0 +1,18 @@
+package main.Storage;
+
+import main.Cars.ICar;
+import main.Snapshots.CarRecord;
+
+public interface CarStorage {
+    int size();
+    ICar get(int index);
+    void add(ICar car);
+    void clear();
+    long sumPrices();
+    void applyDiscount(float percentage);
+    CarRecord record(int slot);
+    void add(CarRecord record);
+    void set(int slot, CarRecord record);
+    void removeLast();
+    void setObserver(StorageObserver observer);
+}
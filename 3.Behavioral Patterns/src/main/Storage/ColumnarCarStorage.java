@@ -0,0 +1,293 @@
+package main.Storage;
+
+import main.CarColorSchemes.ColorSchemes;
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.CarObserver;
+import main.Cars.CarObserverList;
+import main.Cars.ICar;
+import main.Cars.ModelNames;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.Snapshots.CarRecord;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keeps every car attribute in its own primitive array, so bulk price operations
+// walk one contiguous int[] instead of chasing a pointer per car.
+// Cars added here are copied in; get() hands out lightweight views over a slot.
+public class ColumnarCarStorage implements CarStorage {
+    private static final Manufacturer[] MANUFACTURERS = Manufacturer.values();
+    private static final CarType[] CAR_TYPES = CarType.values();
+
+    private int size;
+    private int[] prices;
+    private int[] years;
+    private byte[] manufacturers;
+    private byte[] types;
+    private byte[] colorSchemes;
+    private int[] modelIds;
+    private StorageObserver observer;
+    // views are throwaway objects, so observers registered on them are kept per slot
+    private final Map<Integer, CarObserverList> viewObservers = new HashMap<>();
+
+    public ColumnarCarStorage(){
+        this(16);
+    }
+
+    public ColumnarCarStorage(int initialCapacity){
+        int capacity = Math.max(initialCapacity, 1);
+        this.prices = new int[capacity];
+        this.years = new int[capacity];
+        this.manufacturers = new byte[capacity];
+        this.types = new byte[capacity];
+        this.colorSchemes = new byte[capacity];
+        this.modelIds = new int[capacity];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public ICar get(int index) {
+        checkIndex(index);
+        return new CarView(index);
+    }
+
+    @Override
+    public void add(ICar car) {
+        append(car.getManufacturer(), car.getModel(), car.getYear(), car.getType(), car.getColorScheme(), car.getPrice());
+    }
+
+    @Override
+    public void clear() {
+        this.viewObservers.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public long sumPrices() {
+        int[] prices = this.prices;
+        long totalPrice = 0;
+        for (int i = 0; i < this.size; i++)
+            totalPrice += prices[i];
+
+        return totalPrice;
+    }
+
+    @Override
+    public void applyDiscount(float percentage) {
+        int[] prices = this.prices;
+        for (int i = 0; i < this.size; i++){
+            prices[i] = (int)(prices[i] * (100 - percentage) / 100);
+        }
+    }
+
+    @Override
+    public CarRecord record(int slot) {
+        checkIndex(slot);
+        return CarRecord.detached(new CarView(slot));
+    }
+
+    @Override
+    public void add(CarRecord record) {
+        append(record.getManufacturer(), record.getModel(), record.getYear(), record.getType(), record.getColorScheme(), record.getPrice());
+    }
+
+    @Override
+    public void set(int slot, CarRecord record) {
+        checkIndex(slot);
+        write(slot, record.getManufacturer(), record.getModel(), record.getYear(), record.getType(), record.getColorScheme(), record.getPrice());
+    }
+
+    @Override
+    public void removeLast() {
+        checkIndex(this.size - 1);
+        this.size--;
+        this.viewObservers.remove(this.size);
+    }
+
+    @Override
+    public void setObserver(StorageObserver observer) {
+        this.observer = observer;
+    }
+
+    private void append(Manufacturer manufacturer, String model, int year, CarType type, ICarColorScheme colorScheme, int price){
+        if (this.size == this.prices.length) {
+            grow();
+        }
+
+        write(this.size++, manufacturer, model, year, type, colorScheme, price);
+    }
+
+    private void write(int slot, Manufacturer manufacturer, String model, int year, CarType type, ICarColorScheme colorScheme, int price){
+        this.prices[slot] = price;
+        this.years[slot] = year;
+        this.manufacturers[slot] = (byte) manufacturer.ordinal();
+        this.types[slot] = (byte) type.ordinal();
+        this.modelIds[slot] = ModelNames.idOf(model);
+        writeColorScheme(slot, colorScheme);
+    }
+
+    private void grow(){
+        int capacity = this.prices.length + (this.prices.length >> 1) + 1;
+        this.prices = Arrays.copyOf(this.prices, capacity);
+        this.years = Arrays.copyOf(this.years, capacity);
+        this.manufacturers = Arrays.copyOf(this.manufacturers, capacity);
+        this.types = Arrays.copyOf(this.types, capacity);
+        this.colorSchemes = Arrays.copyOf(this.colorSchemes, capacity);
+        this.modelIds = Arrays.copyOf(this.modelIds, capacity);
+    }
+
+    private void writeColorScheme(int slot, ICarColorScheme colorScheme){
+        this.colorSchemes[slot] = colorScheme.getCode();
+    }
+
+    private void notifyCarChanged(CarView view){
+        if (this.observer != null) {
+            this.observer.onCarChanged(view.slot);
+        }
+        CarObserverList observers = this.viewObservers.get(view.slot);
+        if (observers != null) {
+            observers.notifyCarChanged(view);
+        }
+    }
+
+    private void notifyPriceChanged(CarView view, int oldPrice){
+        if (this.observer != null) {
+            this.observer.onPriceChanged(view.slot, oldPrice, prices[view.slot]);
+        }
+        CarObserverList observers = this.viewObservers.get(view.slot);
+        if (observers != null) {
+            observers.notifyPriceChanged(view, oldPrice);
+        }
+    }
+
+    private void checkIndex(int index){
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    private class CarView implements ICar {
+        private final int slot;
+
+        CarView(int slot){
+            this.slot = slot;
+        }
+
+        @Override
+        public Manufacturer getManufacturer() {
+            return MANUFACTURERS[manufacturers[this.slot]];
+        }
+
+        @Override
+        public void setManufacturer(Manufacturer manufacturer) {
+            manufacturers[this.slot] = (byte) manufacturer.ordinal();
+            notifyCarChanged(this);
+        }
+
+        @Override
+        public String getModel() {
+            return ModelNames.nameOf(modelIds[this.slot]);
+        }
+
+        @Override
+        public int getModelId() {
+            return modelIds[this.slot];
+        }
+
+        @Override
+        public void setModel(String model) {
+            modelIds[this.slot] = ModelNames.idOf(model);
+            notifyCarChanged(this);
+        }
+
+        @Override
+        public int getYear() {
+            return years[this.slot];
+        }
+
+        @Override
+        public void setYear(int year) {
+            years[this.slot] = year;
+            notifyCarChanged(this);
+        }
+
+        @Override
+        public CarType getType() {
+            return CAR_TYPES[types[this.slot]];
+        }
+
+        @Override
+        public void setType(CarType type) {
+            types[this.slot] = (byte) type.ordinal();
+            notifyCarChanged(this);
+        }
+
+        @Override
+        public void setColorScheme(ICarColorScheme newColorScheme) {
+            writeColorScheme(this.slot, newColorScheme);
+            notifyCarChanged(this);
+        }
+
+        @Override
+        public ICarColorScheme getColorScheme() {
+            return ColorSchemes.fromCode(colorSchemes[this.slot]);
+        }
+
+        @Override
+        public int getPrice() {
+            return prices[this.slot];
+        }
+
+        @Override
+        public void setPrice(int newPrice) {
+            int oldPrice = prices[this.slot];
+            prices[this.slot] = newPrice;
+            notifyPriceChanged(this, oldPrice);
+        }
+
+        @Override
+        public void addObserver(CarObserver observer) {
+            viewObservers.computeIfAbsent(this.slot, slot -> new CarObserverList()).add(observer);
+        }
+
+        @Override
+        public void removeObserver(CarObserver observer) {
+            CarObserverList observers = viewObservers.get(this.slot);
+            if (observers != null) {
+                observers.remove(observer);
+                if (observers.isEmpty()) {
+                    viewObservers.remove(this.slot);
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (!(other instanceof CarView)) {
+                return false;
+            }
+            CarView view = (CarView) other;
+            return view.owner() == ColumnarCarStorage.this && view.slot == this.slot;
+        }
+
+        @Override
+        public int hashCode(){
+            return System.identityHashCode(ColumnarCarStorage.this) * 31 + this.slot;
+        }
+
+        private ColumnarCarStorage owner(){
+            return ColumnarCarStorage.this;
+        }
+
+        @Override
+        public String toString(){
+            return getManufacturer() + " " + getModel() + "(" + getType() + ") manufactured in " + getYear();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package main.Storage;
+
+import main.Cars.CarObserver;
+import main.Cars.ICar;
+import main.Snapshots.CarRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ListCarStorage implements CarStorage {
+    private final List<ICar> cars = new ArrayList<>();
+    private final List<SlotObserver> slotObservers = new ArrayList<>();
+    private StorageObserver observer;
+
+
+    @Override
+    public int size() {
+        return this.cars.size();
+    }
+
+    @Override
+    public ICar get(int index) {
+        return this.cars.get(index);
+    }
+
+    @Override
+    public void add(ICar car) {
+        this.cars.add(car);
+        if (this.observer != null) {
+            observe(this.cars.size() - 1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        unobserveAll();
+        this.cars.clear();
+    }
+
+    @Override
+    public long sumPrices() {
+        long totalPrice = 0;
+        for (ICar car: this.cars)
+            totalPrice += car.getPrice();
+
+        return totalPrice;
+    }
+
+    @Override
+    public void applyDiscount(float percentage) {
+        for (ICar car: this.cars){
+            car.setPrice((int)(car.getPrice() * (100 - percentage) / 100));
+        }
+    }
+
+    @Override
+    public CarRecord record(int slot) {
+        return CarRecord.of(this.cars.get(slot));
+    }
+
+    @Override
+    public void add(CarRecord record) {
+        add(record.revert());
+    }
+
+    @Override
+    public void set(int slot, CarRecord record) {
+        ICar car = record.revert();
+        if (this.observer != null) {
+            this.cars.get(slot).removeObserver(this.slotObservers.get(slot));
+            SlotObserver slotObserver = new SlotObserver(slot);
+            car.addObserver(slotObserver);
+            this.slotObservers.set(slot, slotObserver);
+        }
+        this.cars.set(slot, car);
+    }
+
+    @Override
+    public void removeLast() {
+        int slot = this.cars.size() - 1;
+        if (this.observer != null) {
+            this.cars.get(slot).removeObserver(this.slotObservers.remove(slot));
+        }
+        this.cars.remove(slot);
+    }
+
+    @Override
+    public void setObserver(StorageObserver observer) {
+        unobserveAll();
+        this.observer = observer;
+        if (observer != null) {
+            for (int i = 0; i < this.cars.size(); i++){
+                observe(i);
+            }
+        }
+    }
+
+    private void observe(int slot){
+        SlotObserver slotObserver = new SlotObserver(slot);
+        this.cars.get(slot).addObserver(slotObserver);
+        this.slotObservers.add(slotObserver);
+    }
+
+    private void unobserveAll(){
+        for (SlotObserver slotObserver: this.slotObservers){
+            this.cars.get(slotObserver.slot).removeObserver(slotObserver);
+        }
+        this.slotObservers.clear();
+    }
+
+    // Remembers where the car sits so the storage observer gets a slot instead of a lookup
+    private class SlotObserver implements CarObserver {
+        private final int slot;
+
+        SlotObserver(int slot){
+            this.slot = slot;
+        }
+
+        @Override
+        public void onCarChanged(ICar car) {
+            observer.onCarChanged(this.slot);
+        }
+
+        @Override
+        public void onPriceChanged(ICar car, int oldPrice) {
+            observer.onPriceChanged(this.slot, oldPrice, car.getPrice());
+        }
+    }
+}
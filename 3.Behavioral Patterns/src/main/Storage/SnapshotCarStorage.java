@@ -0,0 +1,207 @@
+package main.Storage;
+
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.CarObserver;
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.Snapshots.CarRecord;
+import main.Snapshots.GarageSnapshotFile;
+
+// Reads every car straight from a mapped snapshot file, so opening a garage over it costs nothing per car.
+// The first change copies the file into a ColumnarCarStorage and everything goes through that from then on;
+// views handed out before the copy keep working, they only ever refer to a slot.
+public class SnapshotCarStorage implements CarStorage {
+    private GarageSnapshotFile file;
+    private ColumnarCarStorage columns;
+    private StorageObserver observer;
+
+    public SnapshotCarStorage(GarageSnapshotFile file){
+        this.file = file;
+    }
+
+    // Whether the cars have been copied out of the file
+    public boolean isLoaded(){
+        return this.columns != null;
+    }
+
+    @Override
+    public int size() {
+        return this.columns != null? this.columns.size(): this.file.getCarsCount();
+    }
+
+    @Override
+    public ICar get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        return new SnapshotCarView(index);
+    }
+
+    @Override
+    public void add(ICar car) {
+        load().add(car);
+    }
+
+    @Override
+    public void clear() {
+        this.file = null;
+        this.columns = new ColumnarCarStorage();
+        this.columns.setObserver(this.observer);
+    }
+
+    // The file keeps the net price in its header
+    @Override
+    public long sumPrices() {
+        return this.columns != null? this.columns.sumPrices(): this.file.getNetPrice();
+    }
+
+    @Override
+    public void applyDiscount(float percentage) {
+        load().applyDiscount(percentage);
+    }
+
+    @Override
+    public CarRecord record(int slot) {
+        return this.columns != null? this.columns.record(slot): this.file.record(slot);
+    }
+
+    @Override
+    public void add(CarRecord record) {
+        load().add(record);
+    }
+
+    @Override
+    public void set(int slot, CarRecord record) {
+        load().set(slot, record);
+    }
+
+    @Override
+    public void removeLast() {
+        load().removeLast();
+    }
+
+    @Override
+    public void setObserver(StorageObserver observer) {
+        this.observer = observer;
+        if (this.columns != null) {
+            this.columns.setObserver(observer);
+        }
+    }
+
+    private ColumnarCarStorage load(){
+        if (this.columns == null) {
+            ColumnarCarStorage loaded = new ColumnarCarStorage(this.file.getCarsCount());
+            for (int slot = 0; slot < this.file.getCarsCount(); slot++){
+                loaded.add(this.file.record(slot));
+            }
+            loaded.setObserver(this.observer);
+            this.columns = loaded;
+            this.file = null;
+        }
+        return this.columns;
+    }
+
+    private class SnapshotCarView implements ICar {
+        private final int slot;
+
+        SnapshotCarView(int slot){
+            this.slot = slot;
+        }
+
+        @Override
+        public Manufacturer getManufacturer() {
+            return columns != null? columns.get(this.slot).getManufacturer(): file.getManufacturer(this.slot);
+        }
+
+        @Override
+        public void setManufacturer(Manufacturer manufacturer) {
+            load().get(this.slot).setManufacturer(manufacturer);
+        }
+
+        @Override
+        public String getModel() {
+            return columns != null? columns.get(this.slot).getModel(): file.getModel(this.slot);
+        }
+
+        @Override
+        public void setModel(String model) {
+            load().get(this.slot).setModel(model);
+        }
+
+        @Override
+        public int getYear() {
+            return columns != null? columns.get(this.slot).getYear(): file.getYear(this.slot);
+        }
+
+        @Override
+        public void setYear(int year) {
+            load().get(this.slot).setYear(year);
+        }
+
+        @Override
+        public CarType getType() {
+            return columns != null? columns.get(this.slot).getType(): file.getType(this.slot);
+        }
+
+        @Override
+        public void setType(CarType type) {
+            load().get(this.slot).setType(type);
+        }
+
+        @Override
+        public void setColorScheme(ICarColorScheme newColorScheme) {
+            load().get(this.slot).setColorScheme(newColorScheme);
+        }
+
+        @Override
+        public ICarColorScheme getColorScheme() {
+            return columns != null? columns.get(this.slot).getColorScheme(): file.getColorScheme(this.slot);
+        }
+
+        @Override
+        public int getPrice() {
+            return columns != null? columns.get(this.slot).getPrice(): file.getPrice(this.slot);
+        }
+
+        @Override
+        public void setPrice(int newPrice) {
+            load().get(this.slot).setPrice(newPrice);
+        }
+
+        @Override
+        public void addObserver(CarObserver observer) {
+            load().get(this.slot).addObserver(observer);
+        }
+
+        @Override
+        public void removeObserver(CarObserver observer) {
+            if (columns != null) {
+                columns.get(this.slot).removeObserver(observer);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other){
+            if (!(other instanceof SnapshotCarView)) {
+                return false;
+            }
+            SnapshotCarView view = (SnapshotCarView) other;
+            return view.owner() == SnapshotCarStorage.this && view.slot == this.slot;
+        }
+
+        @Override
+        public int hashCode(){
+            return System.identityHashCode(SnapshotCarStorage.this) * 31 + this.slot;
+        }
+
+        private SnapshotCarStorage owner(){
+            return SnapshotCarStorage.this;
+        }
+
+        @Override
+        public String toString(){
+            return getManufacturer() + " " + getModel() + "(" + getType() + ") manufactured in " + getYear();
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package main.Storage;
+
+public interface StorageObserver {
+    void onCarChanged(int slot);
+    void onPriceChanged(int slot, int oldPrice, int newPrice);
+}
@@ -0,0 +1,193 @@
+package main;
+
+import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.CarObserver;
+import main.Cars.CarObserverList;
+import main.Cars.ICar;
+import main.Enums.CarType;
+import main.Enums.Manufacturer;
+import main.Snapshots.CarSegmentStore;
+
+// Car loaded from a record of a segment store. Setters write straight through to the store,
+// so evicting it from the cache loses nothing. The cache hands out one car per slot and keeps following it
+// after eviction; an evicted car still reads its record again on every get since discounts only reach cached cars.
+class StoredCar implements ICar {
+    private final CarSegmentStore store;
+    private int slot;
+    private boolean evicted;
+    private Manufacturer manufacturer;
+    private String model;
+    private int year;
+    private CarType type;
+    private ICarColorScheme colorScheme;
+    private int price;
+    private CarObserverList observers;
+
+    StoredCar(CarSegmentStore store, int slot){
+        this.store = store;
+        this.slot = slot;
+        load();
+    }
+
+    boolean isStoredIn(CarSegmentStore store){
+        return this.store == store;
+    }
+
+    int getSlot(){
+        return this.slot;
+    }
+
+    void moveTo(int slot){
+        this.slot = slot;
+    }
+
+    void evict(){
+        this.evicted = true;
+    }
+
+    // Back in the cache, its fields are kept up to date again
+    void reload(){
+        this.evicted = false;
+        load();
+    }
+
+    // Keeps the last values it had, but can no longer be changed
+    void detach(){
+        this.slot = -1;
+    }
+
+    void discounted(int newPrice){
+        this.price = newPrice;
+    }
+
+    @Override
+    public Manufacturer getManufacturer() {
+        refresh();
+        return this.manufacturer;
+    }
+
+    @Override
+    public void setManufacturer(Manufacturer manufacturer) {
+        checkAttached();
+        this.manufacturer = manufacturer;
+        writeThrough();
+    }
+
+    @Override
+    public String getModel() {
+        refresh();
+        return this.model;
+    }
+
+    @Override
+    public void setModel(String model) {
+        checkAttached();
+        this.model = model;
+        writeThrough();
+    }
+
+    @Override
+    public int getYear() {
+        refresh();
+        return this.year;
+    }
+
+    @Override
+    public void setYear(int year) {
+        checkAttached();
+        this.year = year;
+        writeThrough();
+    }
+
+    @Override
+    public CarType getType() {
+        refresh();
+        return this.type;
+    }
+
+    @Override
+    public void setType(CarType type) {
+        checkAttached();
+        this.type = type;
+        writeThrough();
+    }
+
+    @Override
+    public void setColorScheme(ICarColorScheme newColorScheme) {
+        checkAttached();
+        this.colorScheme = newColorScheme;
+        writeThrough();
+    }
+
+    @Override
+    public ICarColorScheme getColorScheme() {
+        refresh();
+        return this.colorScheme;
+    }
+
+    @Override
+    public int getPrice() {
+        refresh();
+        return this.price;
+    }
+
+    @Override
+    public void setPrice(int newPrice) {
+        checkAttached();
+        refresh();
+        int oldPrice = this.price;
+        this.price = newPrice;
+        this.store.setPrice(this.slot, newPrice);
+        if (this.observers != null) {
+            this.observers.notifyPriceChanged(this, oldPrice);
+        }
+    }
+
+    @Override
+    public void addObserver(CarObserver observer) {
+        if (this.observers == null) {
+            this.observers = new CarObserverList();
+        }
+        this.observers.add(observer);
+    }
+
+    @Override
+    public void removeObserver(CarObserver observer) {
+        if (this.observers != null) {
+            this.observers.remove(observer);
+        }
+    }
+
+    private void load(){
+        this.manufacturer = this.store.getManufacturer(this.slot);
+        this.model = this.store.getModel(this.slot);
+        this.year = this.store.getYear(this.slot);
+        this.type = this.store.getType(this.slot);
+        this.colorScheme = this.store.getColorScheme(this.slot);
+        this.price = this.store.getPrice(this.slot);
+    }
+
+    private void refresh(){
+        if (this.evicted && this.slot >= 0) {
+            load();
+        }
+    }
+
+    private void writeThrough(){
+        this.store.write(this.slot, this);
+        if (this.observers != null) {
+            this.observers.notifyCarChanged(this);
+        }
+    }
+
+    private void checkAttached(){
+        if (this.slot < 0) {
+            throw new IllegalStateException(this + " was removed from the garage");
+        }
+    }
+
+    @Override
+    public String toString(){
+        return getManufacturer() + " " + getModel() + "(" + getType() + ") manufactured in " + getYear();
+    }
+}
@@ -1,16 +1,16 @@
 package main;
 
-import main.CarColorSchemes.DarkCarColorScheme;
+import main.CarColorSchemes.ColorSchemes;
 import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.ModelNames;
 import main.Enums.CarType;
-import main.Enums.Color;
 import main.Enums.Manufacturer;
 
 import java.util.Calendar;
 
 public class ToyCar {
     private Manufacturer brand;
-    private String toyName;
+    private int toyNameId;
     private int releaseYear;
     private CarType carType;
     private ICarColorScheme colorScheme;
@@ -18,10 +18,10 @@ public class ToyCar {
 
     public ToyCar(Manufacturer brand, String toyName, CarType carType){
         this.brand = brand;
-        this.toyName = toyName;
+        this.toyNameId = ModelNames.idOf(toyName);
         this.releaseYear = Calendar.getInstance().get(Calendar.YEAR);
         this.carType = carType;
-        this.colorScheme = new DarkCarColorScheme(Color.WHITE);
+        this.colorScheme = ColorSchemes.DEFAULT;
     }
 
     public Manufacturer getBrand() {
@@ -33,11 +33,15 @@ public class ToyCar {
     }
 
     public String getToyName() {
-        return toyName;
+        return ModelNames.nameOf(toyNameId);
+    }
+
+    public int getToyNameId() {
+        return toyNameId;
     }
 
     public void setToyName(String toyName) {
-        this.toyName = toyName;
+        this.toyNameId = ModelNames.idOf(toyName);
     }
 
     public int getReleaseYear() {
@@ -65,12 +69,12 @@ public class ToyCar {
     }
 
     public void Play(){
-        System.out.println("Playing with toy car: " + this.toyName + " by " + this.brand + "!");
+        System.out.println("Playing with toy car: " + getToyName() + " by " + this.brand + "!");
     }
 
     @Override
     public String toString(){
-        return "Toy car \'" + this.toyName + "\' " + this.brand + ". Released in " + this.releaseYear;
+        return "Toy car \'" + getToyName() + "\' " + this.brand + ". Released in " + this.releaseYear;
     }
 
     public int getPrice() {
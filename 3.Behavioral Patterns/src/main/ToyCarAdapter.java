@@ -1,12 +1,15 @@
 package main;
 
 import main.CarColorSchemes.ICarColorScheme;
+import main.Cars.CarObserver;
+import main.Cars.CarObserverList;
 import main.Cars.ICar;
 import main.Enums.CarType;
 import main.Enums.Manufacturer;
 
 public class ToyCarAdapter implements ICar {
     private ToyCar toyCar;
+    private final CarObserverList observers = new CarObserverList();
 
     public ToyCarAdapter(ToyCar toyCar){
         this.toyCar = toyCar;
@@ -24,6 +27,7 @@ public class ToyCarAdapter implements ICar {
     @Override
     public void setManufacturer(Manufacturer manufacturer) {
         this.toyCar.setBrand(manufacturer);
+        this.observers.notifyCarChanged(this);
     }
 
     @Override
@@ -31,9 +35,15 @@ public class ToyCarAdapter implements ICar {
         return this.toyCar.getToyName();
     }
 
+    @Override
+    public int getModelId() {
+        return this.toyCar.getToyNameId();
+    }
+
     @Override
     public void setModel(String model) {
         this.toyCar.setToyName(model);
+        this.observers.notifyCarChanged(this);
     }
 
     @Override
@@ -44,6 +54,7 @@ public class ToyCarAdapter implements ICar {
     @Override
     public void setYear(int year) {
         this.toyCar.setReleaseYear(year);
+        this.observers.notifyCarChanged(this);
     }
 
     @Override
@@ -54,11 +65,13 @@ public class ToyCarAdapter implements ICar {
     @Override
     public void setType(CarType type) {
         this.toyCar.setCarType(type);
+        this.observers.notifyCarChanged(this);
     }
 
     @Override
     public void setColorScheme(ICarColorScheme newColorScheme) {
         toyCar.setColorScheme(newColorScheme);
+        this.observers.notifyCarChanged(this);
     }
 
     @Override
@@ -73,6 +86,18 @@ public class ToyCarAdapter implements ICar {
 
     @Override
     public void setPrice(int newPrice){
+        int oldPrice = this.toyCar.getPrice();
         this.toyCar.setPrice(newPrice);
+        this.observers.notifyPriceChanged(this, oldPrice);
+    }
+
+    @Override
+    public void addObserver(CarObserver observer) {
+        this.observers.add(observer);
+    }
+
+    @Override
+    public void removeObserver(CarObserver observer) {
+        this.observers.remove(observer);
     }
 }
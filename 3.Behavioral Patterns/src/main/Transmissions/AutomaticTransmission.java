@@ -1,6 +1,8 @@
 package main.Transmissions;
 
 import main.Enums.TransmissionType;
+import main.Events.ConstructionEvent;
+import main.Events.Events;
 
 public class AutomaticTransmission extends Transmission {
     public AutomaticTransmission(int gears){
@@ -10,6 +12,6 @@ public class AutomaticTransmission extends Transmission {
 
     @Override
     protected void construct(){
-        System.out.println("Building automatic transmission...");
+        Events.publish(ConstructionEvent.of(TransmissionType.AUTOMATIC));
     }
 }
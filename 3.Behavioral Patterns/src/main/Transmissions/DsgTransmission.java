@@ -1,6 +1,8 @@
 package main.Transmissions;
 
 import main.Enums.TransmissionType;
+import main.Events.ConstructionEvent;
+import main.Events.Events;
 
 public class DsgTransmission extends Transmission {
     public DsgTransmission(int gears){
@@ -10,6 +12,6 @@ public class DsgTransmission extends Transmission {
 
     @Override
     protected void construct(){
-        System.out.println("Building dsg transmission...");
+        Events.publish(ConstructionEvent.of(TransmissionType.DSG));
     }
 }
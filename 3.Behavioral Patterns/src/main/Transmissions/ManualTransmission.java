@@ -1,6 +1,8 @@
 package main.Transmissions;
 
 import main.Enums.TransmissionType;
+import main.Events.ConstructionEvent;
+import main.Events.Events;
 
 public class ManualTransmission extends Transmission {
     public ManualTransmission(int gears){
@@ -10,6 +12,6 @@ public class ManualTransmission extends Transmission {
 
     @Override
     protected void construct(){
-        System.out.println("Building manual transmission...");
+        Events.publish(ConstructionEvent.of(TransmissionType.MANUAL));
     }
 }
@@ -1,6 +1,8 @@
 package main.Transmissions;
 
 import main.Enums.TransmissionType;
+import main.Events.ConstructionEvent;
+import main.Events.Events;
 
 public class TiptronicTransmission extends Transmission {
     public TiptronicTransmission(int gears){
@@ -10,6 +12,6 @@ public class TiptronicTransmission extends Transmission {
 
     @Override
     protected void construct(){
-        System.out.println("Building tiptronic transmission...");
+        Events.publish(ConstructionEvent.of(TransmissionType.TIPTRONIC));
     }
 }